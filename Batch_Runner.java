@@ -0,0 +1,441 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Processes many workload and page-trace files in one JVM, so startup and JIT warmup are paid once.
+// Usage: java Batch_Runner <directory | manifest> [--threads N] [--queue N] [--summaries DIR]
+//                          [--frames 3,4] [--memory KB]
+// A directory contributes every regular file in it: *.trace files are page traces, everything else
+// is a workload in the processes.txt format. A manifest lists one file per line, optionally prefixed
+// with "workload" or "trace" ('#' starts a comment); relative paths are resolved against its folder.
+// Files are handed to a fixed pool through a bounded queue; when the queue is full the submitting
+// thread runs the file itself, which throttles submission instead of buffering every task. Each
+// pool thread keeps its own read buffer, parse arrays and scheduler instances, reused across files.
+// One summary per input file is written to the summaries directory.
+public class Batch_Runner
+{
+    private static final String TRACE_SUFFIX = ".trace";
+
+    private final Path summaries;
+    private final int[] frameCounts;
+    private final int memorySize;
+    private final List<Worker> workers = new ArrayList<>(); // Guarded by workersLock
+    private final ReentrantLock workersLock = new ReentrantLock();
+    private final ThreadLocal<Worker> worker = ThreadLocal.withInitial(this::newWorker);
+    private final AtomicInteger failures = new AtomicInteger();
+
+    public Batch_Runner(Path summaries, int[] frameCounts, int memorySize)
+    {
+        this.summaries = summaries;
+        this.frameCounts = frameCounts;
+        this.memorySize = memorySize;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        if (args.length == 0)
+        {
+            System.err.println("Usage: java Batch_Runner <directory | manifest> [--threads N] [--queue N] "
+                + "[--summaries DIR] [--frames 3,4] [--memory KB]");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queue = 0;
+        Path summaries = Paths.get("batch-results");
+        int[] frames = {3};
+        int memory = 1000;
+        for (int i = 1; i < args.length; i += 2)
+        {
+            if (i + 1 == args.length)
+            {
+                throw new IllegalArgumentException("Missing value for option: " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i])
+            {
+                case "--threads":   threads = Integer.parseInt(value); break;
+                case "--queue":     queue = Integer.parseInt(value); break;
+                case "--summaries": summaries = Paths.get(value); break;
+                case "--frames":    frames = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray(); break;
+                case "--memory":    memory = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        new Batch_Runner(summaries, frames, memory).run(Paths.get(args[0]), threads, queue > 0 ? queue : 4 * threads);
+    }
+
+    public void run(Path input, int threads, int queueSize) throws IOException, InterruptedException
+    {
+        List<Path> workloads = new ArrayList<>();
+        List<Path> traces = new ArrayList<>();
+        collectInputs(input, workloads, traces);
+        Files.createDirectories(summaries);
+        System.out.printf("Batch: %d workload file(s), %d trace file(s), %d thread(s), queue of %d%n",
+            workloads.size(), traces.size(), threads, queueSize);
+
+        // Summary names are assigned up front so files with the same name in different folders do not collide
+        Set<String> names = new HashSet<>();
+        long start = System.nanoTime();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize), new ThreadPoolExecutor.CallerRunsPolicy());
+        try
+        {
+            for (Path file : workloads)
+            {
+                Path summary = summaryPath(file, names);
+                pool.execute(() -> process(file, summary, false));
+            }
+            for (Path file : traces)
+            {
+                Path summary = summaryPath(file, names);
+                pool.execute(() -> process(file, summary, true));
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        double wallSeconds = (System.nanoTime() - start) / 1e9;
+
+        // Merge the per-thread totals
+        Online_Scheduler.Policy[] policies = Online_Scheduler.Policy.values();
+        Streaming_Stats[] waiting = new Streaming_Stats[policies.length];
+        Streaming_Stats[] turnaround = new Streaming_Stats[policies.length];
+        for (int i = 0; i < policies.length; i++)
+        {
+            waiting[i] = new Streaming_Stats();
+            turnaround[i] = new Streaming_Stats();
+        }
+        long processes = 0, references = 0, faults = 0, files = 0, busyNanos = 0;
+        workersLock.lock();
+        try
+        {
+            for (Worker w : workers)
+            {
+                for (int i = 0; i < policies.length; i++)
+                {
+                    waiting[i].merge(w.waiting[i]);
+                    turnaround[i].merge(w.turnaround[i]);
+                }
+                processes += w.processes;
+                references += w.references;
+                faults += w.faults;
+                files += w.files;
+                busyNanos += w.busyNanos;
+            }
+        }
+        finally
+        {
+            workersLock.unlock();
+        }
+
+        System.out.printf("%nProcessed %d file(s) (%d failed) in %.2f s wall time, %.1f files/s, %.2f s of work summed over threads%n",
+            files, failures.get(), wallSeconds, files / wallSeconds, busyNanos / 1e9);
+        System.out.printf("Processes scheduled: %d, page references replayed: %d (%d faults)%n", processes, references, faults);
+        for (int i = 0; i < policies.length; i++)
+        {
+            System.out.printf("%-8s WT  %s%n", policies[i], waiting[i].summary());
+            System.out.printf("%-8s TAT %s%n", policies[i], turnaround[i].summary());
+        }
+        System.out.println("Per-file summaries written to " + summaries);
+    }
+
+    // One file, on whichever thread runs the task
+    private void process(Path file, Path summary, boolean trace)
+    {
+        Worker w = worker.get();
+        long start = System.nanoTime();
+        try
+        {
+            String text = trace ? w.runTrace(file) : w.runWorkload(file);
+            Files.write(summary, text.getBytes());
+            w.files++;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            failures.incrementAndGet();
+            System.err.println("Failed " + file + ": " + e);
+        }
+        w.busyNanos += System.nanoTime() - start;
+    }
+
+    private Worker newWorker()
+    {
+        Worker w = new Worker();
+        workersLock.lock();
+        try
+        {
+            workers.add(w);
+        }
+        finally
+        {
+            workersLock.unlock();
+        }
+        return w;
+    }
+
+    // Per-thread state, reused for every file the thread processes
+    private class Worker
+    {
+        private byte[] buffer = new byte[64 * 1024];
+        private int[] values = new int[1024];
+        private final int[] row = new int[5];
+        private int number; // Result of the last parseToken
+        private final Online_Scheduler[] schedulers;
+        private final Integrated_Scheduler[] integrated;
+        final Streaming_Stats[] waiting;    // Over every workload this thread processed, per policy
+        final Streaming_Stats[] turnaround;
+        long processes, references, faults, files, busyNanos;
+
+        Worker()
+        {
+            Online_Scheduler.Policy[] policies = Online_Scheduler.Policy.values();
+            schedulers = new Online_Scheduler[policies.length];
+            integrated = new Integrated_Scheduler[policies.length];
+            waiting = new Streaming_Stats[policies.length];
+            turnaround = new Streaming_Stats[policies.length];
+            for (int i = 0; i < policies.length; i++)
+            {
+                schedulers[i] = new Online_Scheduler(policies[i]);
+                integrated[i] = new Integrated_Scheduler(policies[i], Memory_Manager.MemoryAllocation.Fit.BEST, memorySize);
+                waiting[i] = new Streaming_Stats();
+                turnaround[i] = new Streaming_Stats();
+            }
+        }
+
+        String runWorkload(Path file) throws IOException
+        {
+            List<Process_Create> workload = parseWorkload(file);
+            workload.sort(Comparator.comparingInt(p -> p.arrival_time));
+            boolean hasMemory = workload.stream().anyMatch(p -> p.memory_size > 0);
+            processes += workload.size();
+
+            StringBuilder text = new StringBuilder();
+            text.append("Workload ").append(file).append(": ").append(workload.size()).append(" processes\n");
+            for (int i = 0; i < schedulers.length; i++)
+            {
+                Online_Scheduler scheduler = schedulers[i];
+                scheduler.reset();
+                for (Process_Create p : workload)
+                {
+                    scheduler.submit(p);
+                }
+                scheduler.finish();
+                scheduler.mergeStatsInto(waiting[i], turnaround[i]);
+                text.append(scheduler.snapshot()).append('\n');
+            }
+            if (hasMemory)
+            {
+                for (Integrated_Scheduler scheduler : integrated)
+                {
+                    text.append(scheduler.run(workload)).append('\n');
+                }
+            }
+            return text.toString();
+        }
+
+        String runTrace(Path file) throws IOException
+        {
+            int count = parseInts(readFully(file));
+            int[] trace = Arrays.copyOf(values, count);
+            references += count;
+
+            StringBuilder text = new StringBuilder();
+            text.append("Trace ").append(file).append(": ").append(count).append(" references\n");
+            for (int frames : frameCounts)
+            {
+                int fifo = Memory_Manager.PageReplacement.fifoFaults(trace, frames);
+                int lru = Memory_Manager.PageReplacement.lruFaults(trace, frames);
+                int optimal = Memory_Manager.PageReplacement.optimalFaults(trace, frames);
+                faults += fifo + lru + optimal;
+                text.append(String.format("frames=%d FIFO=%d LRU=%d OPTIMAL=%d faults%n", frames, fifo, lru, optimal));
+            }
+            return text.toString();
+        }
+
+        // processes.txt format: a header line, then PID Arrival_Time Burst_Time Priority [Memory_Size].
+        // Blank lines are skipped; any other row must have 4 or 5 integer columns.
+        private List<Process_Create> parseWorkload(Path file) throws IOException
+        {
+            int length = readFully(file);
+            int pos = 0;
+            while (pos < length && buffer[pos] != '\n')
+            {
+                pos++; // Skip header line
+            }
+            pos++;
+
+            List<Process_Create> workload = new ArrayList<>();
+            for (int line = 2; pos < length; line++)
+            {
+                int lineEnd = pos;
+                while (lineEnd < length && buffer[lineEnd] != '\n')
+                {
+                    lineEnd++;
+                }
+                int fields = 0;
+                int i = skipSeparators(pos, lineEnd, false);
+                while (i < lineEnd)
+                {
+                    if (fields == row.length)
+                    {
+                        throw new IllegalArgumentException("Line " + line + " has more than " + row.length + " columns");
+                    }
+                    i = parseToken(i, lineEnd, false);
+                    row[fields++] = number;
+                    i = skipSeparators(i, lineEnd, false);
+                }
+                if (fields > 0 && fields < 4)
+                {
+                    throw new IllegalArgumentException("Line " + line + " has " + fields + " columns, expected 4 or 5");
+                }
+                if (fields > 0)
+                {
+                    workload.add(new Process_Create(row[0], row[1], row[2], row[3], fields == 5 ? row[4] : 0));
+                }
+                pos = lineEnd + 1;
+            }
+            return workload;
+        }
+
+        // Parses buffer[0, length) as integers separated by whitespace or commas, like
+        // Parameter_Sweep.readTrace; returns how many there were
+        private int parseInts(int length)
+        {
+            int count = 0;
+            int i = skipSeparators(0, length, true);
+            while (i < length)
+            {
+                i = parseToken(i, length, true);
+                if (count == values.length)
+                {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                values[count++] = number;
+                i = skipSeparators(i, length, true);
+            }
+            return count;
+        }
+
+        private int skipSeparators(int i, int end, boolean commas)
+        {
+            while (i < end && isSeparator(buffer[i], commas))
+            {
+                i++;
+            }
+            return i;
+        }
+
+        // Parses the token starting at buffer[i] into `number` and returns the index just past it.
+        // Throws NumberFormatException, as Integer.parseInt would, unless the whole token is an
+        // optional sign followed by digits that fit in an int.
+        private int parseToken(int i, int end, boolean commas)
+        {
+            int start = i;
+            boolean negative = buffer[i] == '-';
+            if (negative || buffer[i] == '+')
+            {
+                i++;
+            }
+            long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+            long value = 0;
+            int digits = 0;
+            for (; i < end && !isSeparator(buffer[i], commas); i++, digits++)
+            {
+                byte b = buffer[i];
+                value = value * 10 + (b - '0');
+                if (b < '0' || b > '9' || value > limit)
+                {
+                    digits = -1;
+                    break;
+                }
+            }
+            if (digits <= 0)
+            {
+                while (i < end && !isSeparator(buffer[i], commas))
+                {
+                    i++;
+                }
+                throw new NumberFormatException("For input string: \"" + new String(buffer, start, i - start) + "\"");
+            }
+            number = (int) (negative ? -value : value);
+            return i;
+        }
+
+        // Reads the whole file into buffer, growing it if needed; returns the length
+        private int readFully(Path file) throws IOException
+        {
+            try (InputStream in = Files.newInputStream(file))
+            {
+                int length = 0;
+                int read;
+                while ((read = in.read(buffer, length, buffer.length - length)) > 0)
+                {
+                    length += read;
+                    if (length == buffer.length)
+                    {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                }
+                return length;
+            }
+        }
+    }
+
+    // Whitespace as matched by \\s, plus commas when parsing traces (readTrace splits on [\\s,]+)
+    private static boolean isSeparator(byte b, boolean commas)
+    {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f' || b == 0x0B || (commas && b == ',');
+    }
+
+    // Checked against every name issued so far, so a second "x" cannot take the name of an input called "x-2"
+    private Path summaryPath(Path file, Set<String> names)
+    {
+        String name = file.getFileName().toString();
+        String summary = name + ".summary";
+        for (int n = 2; !names.add(summary); n++)
+        {
+            summary = name + "-" + n + ".summary";
+        }
+        return summaries.resolve(summary);
+    }
+
+    private static void collectInputs(Path input, List<Path> workloads, List<Path> traces) throws IOException
+    {
+        if (Files.isDirectory(input))
+        {
+            try (Stream<Path> files = Files.list(input))
+            {
+                files.filter(Files::isRegularFile).sorted().forEach(file ->
+                    (file.getFileName().toString().endsWith(TRACE_SUFFIX) ? traces : workloads).add(file));
+            }
+            return;
+        }
+
+        Path base = input.toAbsolutePath().getParent();
+        for (String line : Files.readAllLines(input))
+        {
+            int comment = line.indexOf('#');
+            String entry = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (entry.isEmpty())
+            {
+                continue;
+            }
+            String[] parts = entry.split("\\s+", 2);
+            if (parts.length == 2 && (parts[0].equals("workload") || parts[0].equals("trace")))
+            {
+                (parts[0].equals("trace") ? traces : workloads).add(base.resolve(parts[1]));
+            }
+            else
+            {
+                Path file = base.resolve(entry);
+                (entry.endsWith(TRACE_SUFFIX) ? traces : workloads).add(file);
+            }
+        }
+    }
+}
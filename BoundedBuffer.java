@@ -0,0 +1,259 @@
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded buffer implementing Producer-Consumer synchronization with semaphores and locks.
+// Blocking uses only ReentrantLock and Semaphore (never synchronized) so virtual threads
+// waiting here unmount instead of pinning their carrier thread.
+class BoundedBuffer implements SharedBuffer {
+    private static final long NOT_BLOCKED = -1; // Wait start when permits were available at once
+    
+    private final Queue<Integer> buffer;
+    private final int capacity;
+    private final Lock lock;
+    private final Semaphore empty; // Tracks empty slots in buffer
+    private final Semaphore full;  // Tracks filled slots in buffer
+    private final boolean verbose; // Log every put/take through EventLog
+    private final SimulationClock clock; // Blocking semaphore operations go through the clock
+    private PipelineMetrics metrics;     // Optional instrumentation, null when disabled
+    private long[] enqueueTimes;         // clock.nanoTime() of sampled items, indexed by put position % capacity (guarded by lock)
+    private long putCount;               // Items ever put, guarded by lock
+    private long takeCount;              // Items ever taken, guarded by lock
+    
+    public BoundedBuffer(int capacity) {
+        this(capacity, true);
+    }
+    
+    public BoundedBuffer(int capacity, boolean verbose) {
+        this(capacity, verbose, SimulationClock.REAL_TIME);
+    }
+    
+    public BoundedBuffer(int capacity, boolean verbose, SimulationClock clock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.buffer = new LinkedList<>();
+        this.lock = new ReentrantLock();
+        this.empty = new Semaphore(capacity); // All slots initially empty
+        this.full = new Semaphore(0);         // No items initially available
+        this.verbose = verbose;
+        this.clock = clock;
+    }
+    
+    // Enables instrumentation; must be called before any producer or consumer starts
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+        this.enqueueTimes = metrics != null ? new long[capacity] : null;
+        if (metrics != null) {
+            metrics.bindCounters(() -> readCount(true), () -> readCount(false));
+        }
+    }
+    
+    // Producer adds item to buffer with proper synchronization
+    @Override
+    public void put(int item, int producerId) throws InterruptedException {
+        if (verbose) {
+            EventLog.log(LogEvent.PRODUCER_WAITING, producerId, item);
+        }
+        
+        long waitStart = acquireSlots(empty, 1); // Wait if buffer is full
+        lock.lock();     // Get exclusive access to buffer
+        
+        try {
+            buffer.add(item);
+            if (metrics != null) {
+                recordPut(waitStart, 1);
+            }
+            if (verbose) {
+                EventLog.log(LogEvent.PRODUCER_PUT, producerId, item, buffer.size());
+            }
+        } finally {
+            lock.unlock();  // Release lock in finally block to ensure it's always released
+            clock.release(full, 1); // Signal that an item is available
+        }
+    }
+    
+    // Consumer removes item from buffer with proper synchronization
+    @Override
+    public int take(int consumerId) throws InterruptedException {
+        if (verbose) {
+            EventLog.log(LogEvent.CONSUMER_WAITING, consumerId);
+        }
+        
+        long waitStart = acquireSlots(full, 1);  // Wait if buffer is empty
+        lock.lock();     // Get exclusive access to buffer
+        
+        int item;
+        try {
+            item = buffer.remove();
+            if (metrics != null) {
+                recordTake(waitStart, 1);
+            }
+            if (verbose) {
+                EventLog.log(LogEvent.CONSUMER_TOOK, consumerId, item, buffer.size());
+            }
+        } finally {
+            lock.unlock();   // Release lock in finally block
+            clock.release(empty, 1); // Signal that a slot is now empty
+        }
+        
+        return item;
+    }
+    
+    // Batch put: acquires permits and the lock once per chunk of at most `capacity` items
+    @Override
+    public void putAll(int[] items, int producerId) throws InterruptedException {
+        int offset = 0;
+        while (offset < items.length) {
+            int count = Math.min(capacity, items.length - offset); // Never ask for more permits than exist
+            if (verbose) {
+                EventLog.log(LogEvent.PRODUCER_WAITING_BATCH, producerId, count);
+            }
+            
+            long waitStart = acquireSlots(empty, count);
+            lock.lock();
+            
+            try {
+                for (int i = 0; i < count; i++) {
+                    buffer.add(items[offset + i]);
+                }
+                if (metrics != null) {
+                    recordPut(waitStart, count);
+                }
+                if (verbose) {
+                    EventLog.log(LogEvent.PRODUCER_PUT_BATCH, producerId, count, buffer.size());
+                }
+            } finally {
+                lock.unlock();
+                clock.release(full, count);
+            }
+            offset += count;
+        }
+    }
+    
+    // Batch take: waits for one item, then claims as many more as are already available
+    @Override
+    public int takeUpTo(int[] dst, int max, int consumerId) throws InterruptedException {
+        int limit = Math.min(max, dst.length);
+        if (limit <= 0) {
+            return 0;
+        }
+        if (verbose) {
+            EventLog.log(LogEvent.CONSUMER_WAITING_BATCH, consumerId, limit);
+        }
+        
+        long waitStart = acquireSlots(full, 1);
+        int count = 1;
+        int extra = Math.min(full.availablePermits(), limit - 1);
+        if (extra > 0 && full.tryAcquire(extra)) {
+            count += extra;
+        }
+        
+        return removeBatch(dst, count, consumerId, waitStart);
+    }
+    
+    // Non-blocking batch take of everything currently in the buffer (up to dst.length)
+    @Override
+    public int drainTo(int[] dst, int consumerId) {
+        int count = Math.min(full.availablePermits(), dst.length);
+        while (count > 0 && !full.tryAcquire(count)) {
+            count = Math.min(full.availablePermits(), dst.length); // Lost a race with another consumer
+        }
+        if (count == 0) {
+            return 0;
+        }
+        
+        return removeBatch(dst, count, consumerId, NOT_BLOCKED);
+    }
+    
+    // Removes `count` items whose `full` permits the caller already holds
+    private int removeBatch(int[] dst, int count, int consumerId, long waitStart) {
+        lock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                dst[i] = buffer.remove();
+            }
+            if (metrics != null) {
+                recordTake(waitStart, count);
+            }
+            if (verbose) {
+                EventLog.log(LogEvent.CONSUMER_TOOK_BATCH, consumerId, count, buffer.size());
+            }
+        } finally {
+            lock.unlock();
+            clock.release(empty, count);
+        }
+        return count;
+    }
+    
+    // Acquires permits through the clock. With metrics enabled, returns the clock's nanoTime at which
+    // the caller started blocking, or NOT_BLOCKED if the permits were available immediately. Metrics
+    // therefore measure simulated time, which is wall time only with the real-time clock.
+    private long acquireSlots(Semaphore slots, int permits) throws InterruptedException {
+        if (metrics == null) {
+            clock.acquire(slots, permits);
+            return NOT_BLOCKED;
+        }
+        if (slots.tryAcquire(permits)) {
+            return NOT_BLOCKED;
+        }
+        long waitStart = clock.nanoTime();
+        if (slots == empty) {
+            metrics.recordBlockedPut();
+        } else {
+            metrics.recordBlockedTake();
+        }
+        clock.acquire(slots, permits);
+        return waitStart;
+    }
+    
+    // Records a put of `count` items, stamping sampled positions for residence time (caller holds lock)
+    private void recordPut(long waitStart, int count) {
+        if (metrics.isSampled(putCount, count)) {
+            long now = clock.nanoTime();
+            metrics.recordPutWait(waitStart != NOT_BLOCKED ? now - waitStart : 0, buffer.size());
+            for (int i = 0; i < count; i++) {
+                if (metrics.isSampled(putCount + i)) {
+                    enqueueTimes[(int) ((putCount + i) % capacity)] = now;
+                }
+            }
+        }
+        putCount += count;
+    }
+    
+    // Records a take of `count` items; the buffer is FIFO, so take position n removes the item put at position n
+    private void recordTake(long waitStart, int count) {
+        if (metrics.isSampled(takeCount, count)) {
+            long now = clock.nanoTime();
+            metrics.recordTakeWait(waitStart != NOT_BLOCKED ? now - waitStart : 0, buffer.size());
+            for (int i = 0; i < count; i++) {
+                if (metrics.isSampled(takeCount + i)) {
+                    metrics.recordResidence(now - enqueueTimes[(int) ((takeCount + i) % capacity)]);
+                }
+            }
+        }
+        takeCount += count;
+    }
+    
+    private long readCount(boolean puts) {
+        lock.lock();
+        try {
+            return puts ? putCount : takeCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public int getSize() {
+        lock.lock();
+        try {
+            return buffer.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,411 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiFunction;
+
+// Throughput and latency benchmarks for the SharedBuffer implementations.
+// Usage: java BufferBenchmark [producers] [consumers] [capacity] [items] [batch]
+//        java BufferBenchmark [--producers 1,2,4] [--consumers 1,2,4] [--capacity 16,1024] [--batch 1,32]
+//                             [--work 0,200] [--items N | --duration SECONDS] [--buffers bounded,ring]
+//                             [--rounds N] [--sample N]
+//        java BufferBenchmark --check
+// The first form compares BoundedBuffer and LockFreeRingBuffer on one configuration. The second
+// sweeps every combination of the comma-separated lists and reports throughput plus p50/p99/p999
+// item latency (time from put to take) for each buffer. --check runs a quick put/take correctness
+// check of both buffers at the smallest capacities.
+public class BufferBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int POISON = -1; // Sent once per consumer after the producers finish
+
+    private static volatile long sink; // Keeps the simulated work from being optimized away
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length > 0 && args[0].equals("--check")) {
+            runCheck();
+            return;
+        }
+        if (args.length > 0 && args[0].startsWith("--")) {
+            runSweep(args);
+            return;
+        }
+
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int consumers = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+        int items = args.length > 3 ? Integer.parseInt(args[3]) : 2_000_000;
+        int batch = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+        System.out.println("=== Bounded Buffer Benchmark ===");
+        System.out.printf("Producers: %d, Consumers: %d, Capacity: %d, Items per round: %d, Batch: %d%n%n",
+            producers, consumers, capacity, items, batch);
+
+        Load load = new Load(producers, consumers, capacity, batch, 0, items, 0);
+        double locked = measure("BoundedBuffer", BufferBenchmark::boundedBuffer, load);
+        double lockFree = measure("LockFreeRingBuffer", BufferBenchmark::ringBuffer, load);
+
+        System.out.printf("%nSpeedup (LockFreeRingBuffer / BoundedBuffer): %.2fx%n", lockFree / locked);
+    }
+
+    // One point of the sweep; exactly one of items and durationNanos is non-zero
+    private static class Load {
+        final int producers;
+        final int consumers;
+        final int capacity;
+        final int batch;
+        final int work; // Work units spent producing and again consuming each item
+        final long items;
+        final long durationNanos;
+
+        Load(int producers, int consumers, int capacity, int batch, int work, long items, long durationNanos) {
+            this.producers = producers;
+            this.consumers = consumers;
+            this.capacity = capacity;
+            this.batch = batch;
+            this.work = work;
+            this.items = items;
+            this.durationNanos = durationNanos;
+        }
+    }
+
+    // Outcome of one round
+    private static class Round {
+        final long items;
+        final long nanos;
+        final PipelineMetrics.Snapshot snapshot; // null when the round was not instrumented
+
+        Round(long items, long nanos, PipelineMetrics.Snapshot snapshot) {
+            this.items = items;
+            this.nanos = nanos;
+            this.snapshot = snapshot;
+        }
+
+        double opsPerSec() {
+            return items / (nanos / 1e9);
+        }
+    }
+
+    private static SharedBuffer boundedBuffer(int capacity, PipelineMetrics metrics) {
+        BoundedBuffer buffer = new BoundedBuffer(capacity, false);
+        buffer.setMetrics(metrics);
+        return buffer;
+    }
+
+    private static SharedBuffer ringBuffer(int capacity, PipelineMetrics metrics) {
+        LockFreeRingBuffer buffer = new LockFreeRingBuffer(capacity, false);
+        buffer.setMetrics(metrics);
+        return buffer;
+    }
+
+    // Runs warmup and measured rounds, returning the best throughput in items per second
+    private static double measure(String name, BiFunction<Integer, PipelineMetrics, SharedBuffer> factory,
+                                  Load load) throws InterruptedException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            runRound(factory, load, null);
+        }
+
+        double best = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            double opsPerSec = runRound(factory, load, null).opsPerSec();
+            best = Math.max(best, opsPerSec);
+            System.out.printf("%-20s round %d: %,15.0f items/sec%n", name, i + 1, opsPerSec);
+        }
+        System.out.printf("%-20s best:    %,15.0f items/sec%n", name, best);
+        return best;
+    }
+
+    // Runs every combination of the listed parameters against every listed buffer
+    private static void runSweep(String[] args) throws InterruptedException {
+        int[] producers = { 1, 2, 4 };
+        int[] consumers = { 1, 2, 4 };
+        int[] capacities = { 16, 1024 };
+        int[] batches = { 1 };
+        int[] works = { 0 };
+        long items = 1_000_000;
+        long durationNanos = 0;
+        List<String> buffers = Arrays.asList("bounded", "ring");
+        int rounds = 3;
+        int sampleRate = 64;
+
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for option: " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--producers": producers = parseList(value); break;
+                case "--consumers": consumers = parseList(value); break;
+                case "--capacity":  capacities = parseList(value); break;
+                case "--batch":     batches = parseList(value); break;
+                case "--work":      works = parseList(value); break;
+                case "--items":     items = Long.parseLong(value); durationNanos = 0; break;
+                case "--duration":  durationNanos = (long) (Double.parseDouble(value) * 1e9); items = 0; break;
+                case "--buffers":   buffers = Arrays.asList(value.split(",")); break;
+                case "--rounds":    rounds = Integer.parseInt(value); break;
+                case "--sample":    sampleRate = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        System.out.println("=== Bounded Buffer Load Sweep ===");
+        System.out.printf("%s per round, %d measured round(s) after 1 warmup, median shown, latency sampled 1 in %d%n%n",
+            durationNanos > 0 ? durationNanos / 1e9 + " s" : items + " items", rounds, sampleRate);
+        System.out.printf("%-8s %4s %4s %6s %6s %6s %12s %14s %10s %10s %10s%n",
+            "buffer", "prod", "cons", "cap", "batch", "work", "items", "items/sec", "p50 us", "p99 us", "p999 us");
+
+        for (String name : buffers) {
+            BiFunction<Integer, PipelineMetrics, SharedBuffer> factory;
+            if (name.equals("bounded")) {
+                factory = BufferBenchmark::boundedBuffer;
+            } else if (name.equals("ring")) {
+                factory = BufferBenchmark::ringBuffer;
+            } else {
+                throw new IllegalArgumentException("Unknown buffer: " + name + " (expected bounded or ring)");
+            }
+
+            for (int p : producers) {
+                for (int c : consumers) {
+                    for (int capacity : capacities) {
+                        int minimum = name.equals("ring") ? 2 : 1;
+                        if (capacity < minimum) {
+                            System.out.printf("%-8s %4d %4d %6d   skipped: needs a capacity of at least %d%n",
+                                name, p, c, capacity, minimum);
+                            continue;
+                        }
+                        for (int batch : batches) {
+                            for (int work : works) {
+                                Load load = new Load(p, c, capacity, batch, work, items, durationNanos);
+                                Round round = medianRound(factory, load, rounds, sampleRate);
+                                double[] latency = round.snapshot.residence;
+                                System.out.printf("%-8s %4d %4d %6d %6d %6d %12d %,14.0f %10.1f %10.1f %10.1f%n",
+                                    name, p, c, capacity, batch, work, round.items, round.opsPerSec(),
+                                    latency[0], latency[1], latency[2]);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Put/take check at capacities 1 and 2: BoundedBuffer must reject 0 and the ring must reject 1,
+    // and every accepted buffer must keep FIFO order over several laps and pass a stream through
+    // one producer and one consumer
+    private static void runCheck() throws InterruptedException {
+        try {
+            new BoundedBuffer(0, false);
+            throw new IllegalStateException("BoundedBuffer accepted capacity 0");
+        } catch (IllegalArgumentException e) {
+            System.out.printf("%-20s capacity 0: rejected (%s)%n", "BoundedBuffer", e.getMessage());
+        }
+        for (int capacity = 1; capacity <= 2; capacity++) {
+            checkBuffer("BoundedBuffer", new BoundedBuffer(capacity, false), capacity);
+            try {
+                new LockFreeRingBuffer(capacity, false);
+                if (capacity < 2) {
+                    throw new IllegalStateException("LockFreeRingBuffer accepted capacity " + capacity);
+                }
+            } catch (IllegalArgumentException e) {
+                if (capacity >= 2) {
+                    throw e;
+                }
+                System.out.printf("%-20s capacity %d: rejected (%s)%n", "LockFreeRingBuffer", capacity, e.getMessage());
+                continue;
+            }
+            checkBuffer("LockFreeRingBuffer", new LockFreeRingBuffer(capacity, false), capacity);
+        }
+        System.out.println("All checks passed");
+    }
+
+    private static void checkBuffer(String name, SharedBuffer buffer, int capacity) throws InterruptedException {
+        int next = 0;
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < capacity; i++) {
+                buffer.put(next + i, 0);
+            }
+            if (buffer.getSize() != capacity) {
+                throw new IllegalStateException(name + ": size " + buffer.getSize() + " after filling " + capacity + " slots");
+            }
+            for (int i = 0; i < capacity; i++) {
+                int item = buffer.take(0);
+                if (item != next + i) {
+                    throw new IllegalStateException(name + ": took " + item + ", expected " + (next + i));
+                }
+            }
+            next += capacity;
+        }
+
+        int items = 100_000;
+        boolean[] ordered = { true };
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < items; i++) {
+                    buffer.put(i, 1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread consumer = new Thread(() -> {
+            try {
+                for (int i = 0; i < items; i++) {
+                    if (buffer.take(1) != i) {
+                        ordered[0] = false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        consumer.start();
+        producer.join(10_000);
+        consumer.join(10_000);
+        if (producer.isAlive() || consumer.isAlive()) {
+            producer.interrupt();
+            consumer.interrupt();
+            throw new IllegalStateException(name + ": capacity " + capacity + " did not finish " + items + " items");
+        }
+        if (!ordered[0] || buffer.getSize() != 0) {
+            throw new IllegalStateException(name + ": capacity " + capacity + " lost or reordered items");
+        }
+        System.out.printf("%-20s capacity %d: ok%n", name, capacity);
+    }
+
+    // Runs one warmup and `rounds` instrumented rounds, returning the round with median throughput
+    private static Round medianRound(BiFunction<Integer, PipelineMetrics, SharedBuffer> factory, Load load,
+                                     int rounds, int sampleRate) throws InterruptedException {
+        runRound(factory, load, null);
+
+        List<Round> results = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, rounds); i++) {
+            results.add(runRound(factory, load, new PipelineMetrics(sampleRate)));
+        }
+        results.sort((a, b) -> Double.compare(a.opsPerSec(), b.opsPerSec()));
+        return results.get(results.size() / 2);
+    }
+
+    // Moves load.items items (or as many as fit in load.durationNanos) through a fresh buffer.
+    // Producers stop on their own; then one POISON per consumer is put so consumers can drain and exit.
+    private static Round runRound(BiFunction<Integer, PipelineMetrics, SharedBuffer> factory, Load load,
+                                  PipelineMetrics metrics) throws InterruptedException {
+        SharedBuffer buffer = factory.apply(load.capacity, metrics);
+        CountDownLatch start = new CountDownLatch(1);
+        long[] produced = new long[load.producers];
+        Thread[] producerThreads = new Thread[load.producers];
+        Thread[] consumerThreads = new Thread[load.consumers];
+        long[] deadline = new long[1]; // Set just before the start signal
+
+        for (int p = 0; p < load.producers; p++) {
+            int id = p + 1;
+            int index = p;
+            long quota = load.items > 0 ? share(load.items, load.producers, p) : Long.MAX_VALUE;
+            producerThreads[p] = new Thread(() -> {
+                try {
+                    start.await();
+                    int[] chunk = new int[load.batch];
+                    long sent = 0;
+                    while (sent < quota && (load.durationNanos == 0 || System.nanoTime() < deadline[0])) {
+                        int count = (int) Math.min(chunk.length, quota - sent);
+                        for (int i = 0; i < count; i++) {
+                            chunk[i] = work((int) (sent + i), load.work) & Integer.MAX_VALUE; // Never POISON
+                        }
+                        if (count == 1) {
+                            buffer.put(chunk[0], id);
+                        } else {
+                            buffer.putAll(count == chunk.length ? chunk : Arrays.copyOf(chunk, count), id);
+                        }
+                        sent += count;
+                    }
+                    produced[index] = sent;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        for (int c = 0; c < load.consumers; c++) {
+            int id = c + 1;
+            consumerThreads[c] = new Thread(() -> {
+                try {
+                    start.await();
+                    int[] chunk = new int[load.batch];
+                    int result = 0;
+                    while (true) {
+                        int count;
+                        if (load.batch == 1) {
+                            chunk[0] = buffer.take(id);
+                            count = 1;
+                        } else {
+                            count = buffer.takeUpTo(chunk, chunk.length, id);
+                        }
+                        // Poison is put after every real item, so any in this chunk form its tail
+                        int poisons = 0;
+                        for (int i = 0; i < count; i++) {
+                            if (chunk[i] == POISON) {
+                                poisons++;
+                            } else {
+                                result += work(chunk[i], load.work);
+                            }
+                        }
+                        if (poisons > 0) {
+                            for (int i = 1; i < poisons; i++) {
+                                buffer.put(POISON, id); // Hand the extras on to the other consumers
+                            }
+                            break;
+                        }
+                    }
+                    sink += result;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        for (Thread t : producerThreads) {
+            t.start();
+        }
+        for (Thread t : consumerThreads) {
+            t.start();
+        }
+        long begin = System.nanoTime();
+        deadline[0] = begin + load.durationNanos;
+        start.countDown(); // Publishes deadline[0] to the waiting threads
+        for (Thread t : producerThreads) {
+            t.join();
+        }
+        for (int c = 0; c < load.consumers; c++) {
+            buffer.put(POISON, 0);
+        }
+        for (Thread t : consumerThreads) {
+            t.join();
+        }
+        long nanos = System.nanoTime() - begin;
+
+        long total = 0;
+        for (long count : produced) {
+            total += count;
+        }
+        return new Round(total, nanos, metrics != null ? metrics.snapshot() : null);
+    }
+
+    // Simulated per-item CPU cost: `units` rounds of xorshift starting from seed
+    private static int work(int seed, int units) {
+        int x = seed | 1;
+        for (int i = 0; i < units; i++) {
+            x ^= x << 13;
+            x ^= x >>> 17;
+            x ^= x << 5;
+        }
+        return units == 0 ? seed : x;
+    }
+
+    // Splits total items as evenly as possible between workers
+    private static long share(long total, int workers, int index) {
+        return total / workers + (index < total % workers ? 1 : 0);
+    }
+
+    private static int[] parseList(String value) {
+        return Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+}
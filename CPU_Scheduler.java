@@ -5,12 +5,44 @@ public class CPU_Scheduler
 {
     public static void main(String[] args) 
     {
-        // Handle command-line argument for filename
-        String filename = "processes.txt"; // default filename
-        if (args.length > 0) {
-            filename = args[0];
+        // Handle command-line arguments: [filename] [--execute CPUS] [--unit-ms MILLIS] [--online] [--integrated KB]
+        //                               [--compaction full|KB]
+        //                               or --batch DIRECTORY_OR_MANIFEST
+        // --batch runs every workload and page-trace file through Batch_Runner in this one JVM, then exits
+        // --execute also runs each schedule as real CPU work on a pool of CPUS worker threads
+        // --online also streams the processes through Online_Scheduler, one submission at a time
+        // --integrated also runs memory-gated scheduling with KB of contiguous memory
+        // --compaction also reruns the allocators, compacting memory when a process does not fit;
+        //              full moves every block, a number moves at most that many KB per compaction
+        String filename = null;
+        int executeCpus = 0;
+        double unitMillis = 50; // Wall-clock milliseconds per time unit when executing
+        boolean online = false;
+        int integratedMemory = 0;
+        int compactionBudget = -1; // 0 for full compaction, -1 when disabled
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--execute") && i + 1 < args.length) {
+                executeCpus = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--unit-ms") && i + 1 < args.length) {
+                unitMillis = Double.parseDouble(args[++i]);
+            } else if (args[i].equals("--online")) {
+                online = true;
+            } else if (args[i].equals("--integrated") && i + 1 < args.length) {
+                integratedMemory = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--compaction") && i + 1 < args.length) {
+                String mode = args[++i];
+                compactionBudget = mode.equals("full") ? 0 : Integer.parseInt(mode);
+            } else if (args[i].equals("--batch") && i + 1 < args.length) {
+                runBatch(args[++i]);
+                return;
+            } else {
+                filename = args[i];
+            }
+        }
+        if (filename != null) {
             System.out.println("Using input file: " + filename);
         } else {
+            filename = "processes.txt"; // default filename
             System.out.println("Using default: processes.txt");
         }
         
@@ -44,9 +76,25 @@ public class CPU_Scheduler
         }
 
         // Execute all CPU scheduling algorithms with separate process copies
-        scheduler.FCFS(FCFSProcesses);
-        scheduler.Priority_Scheduling(priorityProcesses);
-        scheduler.SJF(SJFProcesses);
+        List<Scheduling_Algorithms.GanttEntry> FCFSSchedule = scheduler.FCFS(FCFSProcesses);
+        List<Scheduling_Algorithms.GanttEntry> prioritySchedule = scheduler.Priority_Scheduling(priorityProcesses);
+        List<Scheduling_Algorithms.GanttEntry> SJFSchedule = scheduler.SJF(SJFProcesses);
+        
+        // Run each schedule for real and compare measured times with the simulated ones
+        if (executeCpus > 0) {
+            System.out.println("\n\n" + "=".repeat(60));
+            System.out.println("SCHEDULE EXECUTION ON WORKER THREADS");
+            System.out.println("=".repeat(60));
+            
+            Execution_Engine engine = new Execution_Engine(executeCpus, unitMillis);
+            engine.execute("First Come First Served", FCFSProcesses, FCFSSchedule);
+            engine.execute("Priority Scheduling", priorityProcesses, prioritySchedule);
+            engine.execute("Shortest Job First", SJFProcesses, SJFSchedule);
+        }
+        
+        if (online) {
+            runOnlineScheduling(processes);
+        }
         
         // ===== MEMORY MANAGEMENT SECTION =====
         System.out.println("\n\n" + "=".repeat(60));
@@ -58,18 +106,30 @@ public class CPU_Scheduler
         List<Memory_Manager.MemoryAllocation.MemoryBlock> memoryBlocks2 = createMemoryBlocks();
         List<Memory_Manager.MemoryAllocation.MemoryBlock> memoryBlocks3 = createMemoryBlocks();
         
-        // Create process memory requests
+        // Create process memory requests from the workload's Memory_Size column
         List<Memory_Manager.MemoryAllocation.ProcessMemory> memoryProcesses = new ArrayList<>();
-        memoryProcesses.add(new Memory_Manager.MemoryAllocation.ProcessMemory("P1", 212));
-        memoryProcesses.add(new Memory_Manager.MemoryAllocation.ProcessMemory("P2", 417));
-        memoryProcesses.add(new Memory_Manager.MemoryAllocation.ProcessMemory("P3", 112));
-        memoryProcesses.add(new Memory_Manager.MemoryAllocation.ProcessMemory("P4", 426));
+        for (Process_Create p : processes) {
+            if (p.memory_size > 0) {
+                memoryProcesses.add(new Memory_Manager.MemoryAllocation.ProcessMemory("P" + p.pid, p.memory_size));
+            }
+        }
+        if (memoryProcesses.isEmpty()) {
+            // Older workload files have no memory column
+            memoryProcesses.add(new Memory_Manager.MemoryAllocation.ProcessMemory("P1", 212));
+            memoryProcesses.add(new Memory_Manager.MemoryAllocation.ProcessMemory("P2", 417));
+            memoryProcesses.add(new Memory_Manager.MemoryAllocation.ProcessMemory("P3", 112));
+            memoryProcesses.add(new Memory_Manager.MemoryAllocation.ProcessMemory("P4", 426));
+        }
         
         // Run memory allocation algorithms
         Memory_Manager.MemoryAllocation.firstFit(memoryBlocks1, memoryProcesses);
         Memory_Manager.MemoryAllocation.bestFit(memoryBlocks2, memoryProcesses);
         Memory_Manager.MemoryAllocation.worstFit(memoryBlocks3, memoryProcesses);
         
+        if (compactionBudget >= 0) {
+            runCompaction(memoryProcesses, compactionBudget);
+        }
+        
         // ===== PAGE REPLACEMENT SECTION =====
         System.out.println("\n\n" + "=".repeat(60));
         System.out.println("PAGE REPLACEMENT SIMULATION");
@@ -80,10 +140,133 @@ public class CPU_Scheduler
         Memory_Manager.PageReplacement.fifo(pageReferences, 3);
         Memory_Manager.PageReplacement.lru(pageReferences, 3);
         Memory_Manager.PageReplacement.optimal(pageReferences, 3);
+        
+        if (integratedMemory > 0) {
+            runIntegratedScheduling(processes, integratedMemory);
+        }
+    }
+    
+    // Reruns each allocator on fresh blocks, compacting whenever a process does not fit
+    private static void runCompaction(List<Memory_Manager.MemoryAllocation.ProcessMemory> memoryProcesses, int budgetKB)
+    {
+        System.out.println("\n\n" + "=".repeat(60));
+        System.out.println("MEMORY ALLOCATION WITH COMPACTION");
+        System.out.println("=".repeat(60));
+        
+        Memory_Manager.MemoryAllocation.Compactor first = new Memory_Manager.MemoryAllocation.Compactor(budgetKB);
+        Memory_Manager.MemoryAllocation.Compactor best = new Memory_Manager.MemoryAllocation.Compactor(budgetKB);
+        Memory_Manager.MemoryAllocation.Compactor worst = new Memory_Manager.MemoryAllocation.Compactor(budgetKB);
+        Memory_Manager.MemoryAllocation.firstFit(createMemoryBlocks(), memoryProcesses, first);
+        Memory_Manager.MemoryAllocation.bestFit(createMemoryBlocks(), memoryProcesses, best);
+        Memory_Manager.MemoryAllocation.worstFit(createMemoryBlocks(), memoryProcesses, worst);
+        
+        first.printSummary("First Fit compaction");
+        best.printSummary("Best Fit compaction");
+        worst.printSummary("Worst Fit compaction");
+    }
+    
+    // Runs every CPU policy and allocator with memory admission, first on the file's processes
+    // and then on a generated million-process trace
+    private static void runIntegratedScheduling(List<Process_Create> processes, int memorySize)
+    {
+        System.out.println("\n\n" + "=".repeat(60));
+        System.out.println("INTEGRATED CPU AND MEMORY SCHEDULING");
+        System.out.println("=".repeat(60));
+        
+        System.out.println("\n=== " + processes.size() + " processes from file, " + memorySize + " KB of memory ===");
+        for (Online_Scheduler.Policy policy : Online_Scheduler.Policy.values()) {
+            for (Memory_Manager.MemoryAllocation.Fit fit : Memory_Manager.MemoryAllocation.Fit.values()) {
+                System.out.println(new Integrated_Scheduler(policy, fit, memorySize).run(processes));
+            }
+        }
+        
+        // The CPU alone would be about 75% busy, so any backlog beyond that comes from waiting for memory
+        int traceLength = 1_000_000;
+        List<Process_Create> trace = generateWorkload(traceLength, 42);
+        
+        System.out.println("\n=== Generated trace of " + traceLength + " processes, " + memorySize + " KB of memory ===");
+        for (Online_Scheduler.Policy policy : Online_Scheduler.Policy.values()) {
+            for (Memory_Manager.MemoryAllocation.Fit fit : Memory_Manager.MemoryAllocation.Fit.values()) {
+                long start = System.nanoTime();
+                Integrated_Scheduler.Result result = new Integrated_Scheduler(policy, fit, memorySize).run(trace);
+                System.out.printf("%s (%.0f ms)%n", result, (System.nanoTime() - start) / 1e6);
+            }
+        }
     }
 
+    // Streams the file's processes, in arrival order, through an Online_Scheduler for each policy,
+    // then a long generated stream to show that cost and memory depend only on live processes
+    private static void runOnlineScheduling(List<Process_Create> processes)
+    {
+        System.out.println("\n\n" + "=".repeat(60));
+        System.out.println("ONLINE SCHEDULING");
+        System.out.println("=".repeat(60));
+        
+        List<Process_Create> stream = new ArrayList<>(processes);
+        stream.sort(Comparator.comparingInt(p -> p.arrival_time));
+        
+        for (Online_Scheduler.Policy policy : Online_Scheduler.Policy.values()) {
+            System.out.println("\n=== Online " + policy + " ===");
+            Online_Scheduler scheduler = new Online_Scheduler(policy);
+            for (Process_Create p : stream) {
+                scheduler.submit(p);
+                System.out.println("Submitted P" + p.pid + " (arrival " + p.arrival_time + "): " + scheduler.snapshot());
+            }
+            scheduler.finish();
+            System.out.println("End of stream: " + scheduler.snapshot());
+        }
+        
+        // Arrivals every 1-3 time units, bursts of 1-2, so the CPU is busy about 75% of the time
+        int streamLength = 1_000_000;
+        System.out.println("\n=== Online stream of " + streamLength + " generated processes ===");
+        for (Online_Scheduler.Policy policy : Online_Scheduler.Policy.values()) {
+            Online_Scheduler scheduler = new Online_Scheduler(policy);
+            Random random = new Random(42);
+            int arrival = 0;
+            int maxLive = 0;
+            long start = System.nanoTime();
+            for (int pid = 1; pid <= streamLength; pid++) {
+                scheduler.submit(new Process_Create(pid, arrival, 1 + random.nextInt(2), random.nextInt(5) + 1));
+                arrival += 1 + random.nextInt(3);
+                if (pid % 100_000 == 0) {
+                    maxLive = Math.max(maxLive, scheduler.snapshot().live);
+                }
+            }
+            scheduler.finish();
+            double millis = (System.nanoTime() - start) / 1e6;
+            System.out.printf("%s (%.0f ms, %.0f ns per submission, max live sampled %d)%n",
+                scheduler.snapshot(), millis, millis * 1e6 / streamLength, maxLive);
+        }
+    }
+    
+    private static void runBatch(String input)
+    {
+        try {
+            Batch_Runner runner = new Batch_Runner(java.nio.file.Paths.get("batch-results"), new int[] {3}, 1000);
+            runner.run(java.nio.file.Paths.get(input), Runtime.getRuntime().availableProcessors(),
+                4 * Runtime.getRuntime().availableProcessors());
+        } catch (IOException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // Seeded synthetic workload: arrivals every 1-3 time units, bursts of 1-2, priorities 1-5, 50-500 KB each
+    static List<Process_Create> generateWorkload(int count, long seed)
+    {
+        Random random = new Random(seed);
+        List<Process_Create> workload = new ArrayList<>(count);
+        int arrival = 0;
+        for (int pid = 1; pid <= count; pid++) {
+            workload.add(new Process_Create(pid, arrival, 1 + random.nextInt(2), 1 + random.nextInt(5), 50 + random.nextInt(451)));
+            arrival += 1 + random.nextInt(3);
+        }
+        return workload;
+    }
+    
     // Creates memory blocks with different sizes for allocation algorithms
-    private static List<Memory_Manager.MemoryAllocation.MemoryBlock> createMemoryBlocks() 
+    static List<Memory_Manager.MemoryAllocation.MemoryBlock> createMemoryBlocks() 
     {
         List<Memory_Manager.MemoryAllocation.MemoryBlock> blocks = new ArrayList<>();
         
@@ -128,8 +311,9 @@ public class CPU_Scheduler
                     int arrivalTime = Integer.parseInt(parts[1]);
                     int burstTime = Integer.parseInt(parts[2]);
                     int priority = Integer.parseInt(parts[3]);
+                    int memorySize = parts.length >= 5 ? Integer.parseInt(parts[4]) : 0; // Optional Memory_Size column
                     
-                    processes.add(new Process_Create(pid, arrivalTime, burstTime, priority));
+                    processes.add(new Process_Create(pid, arrivalTime, burstTime, priority, memorySize));
                 }
             }
             reader.close();
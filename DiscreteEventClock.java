@@ -0,0 +1,163 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Discrete-event clock: simulated time jumps straight to the next wakeup once every registered
+// thread is either sleeping or blocked on a semaphore that cannot be acquired. Wakeups fire one
+// at a time in (time, request order), so threads observe the same ordering as with real sleeps
+// but the simulation runs as fast as the CPU allows.
+class DiscreteEventClock implements SimulationClock {
+    // A sleeping thread waiting for simulated time to reach `time`
+    private static class Wakeup implements Comparable<Wakeup> {
+        final long time;
+        final long order;
+        final Condition signal;
+        boolean fired;
+
+        Wakeup(long time, long order, Condition signal) {
+            this.time = time;
+            this.order = order;
+            this.signal = signal;
+        }
+
+        @Override
+        public int compareTo(Wakeup other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(order, other.order);
+        }
+    }
+
+    // A thread blocked in acquire()
+    private static class Waiter {
+        final Semaphore semaphore;
+        final int permits;
+        final Condition signal;
+
+        Waiter(Semaphore semaphore, int permits, Condition signal) {
+            this.semaphore = semaphore;
+            this.permits = permits;
+            this.signal = signal;
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Wakeup> pending = new PriorityQueue<>();
+    private final List<Waiter> waiters = new ArrayList<>();
+    private volatile long now;
+    private long nextOrder;
+    private int parties; // Registered threads
+    private int idle;    // Registered threads currently sleeping or blocked
+
+    @Override
+    public long now() {
+        return now;
+    }
+
+    @Override
+    public void register() {
+        lock.lock();
+        try {
+            parties++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deregister() {
+        lock.lock();
+        try {
+            parties--;
+            advanceIfQuiescent();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        lock.lock();
+        try {
+            Wakeup wakeup = new Wakeup(now + Math.max(0, millis), nextOrder++, lock.newCondition());
+            pending.add(wakeup);
+            idle++;
+            advanceIfQuiescent();
+
+            while (!wakeup.fired) {
+                try {
+                    wakeup.signal.await();
+                } catch (InterruptedException e) {
+                    if (!wakeup.fired) { // A fired wakeup was already counted as busy again
+                        pending.remove(wakeup);
+                        idle--;
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void acquire(Semaphore semaphore, int permits) throws InterruptedException {
+        if (semaphore.tryAcquire(permits)) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            Waiter waiter = new Waiter(semaphore, permits, lock.newCondition());
+            waiters.add(waiter);
+            idle++;
+            try {
+                while (!semaphore.tryAcquire(permits)) {
+                    advanceIfQuiescent();
+                    waiter.signal.await();
+                }
+            } finally {
+                waiters.remove(waiter);
+                idle--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void release(Semaphore semaphore, int permits) {
+        lock.lock();
+        try {
+            semaphore.release(permits);
+            for (Waiter waiter : waiters) {
+                if (waiter.semaphore == semaphore) {
+                    waiter.signal.signal();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Fires the earliest wakeup if nothing else can make progress at the current time.
+    // A waiter whose semaphore already has enough permits is about to run, so time must not move.
+    private void advanceIfQuiescent() {
+        if (idle < parties || pending.isEmpty()) {
+            return;
+        }
+        for (Waiter waiter : waiters) {
+            if (waiter.semaphore.availablePermits() >= waiter.permits) {
+                return;
+            }
+        }
+
+        Wakeup next = pending.poll();
+        now = Math.max(now, next.time);
+        next.fired = true;
+        idle--; // Counted as busy from here so no other wakeup can overtake it
+        next.signal.signal();
+    }
+}
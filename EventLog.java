@@ -0,0 +1,167 @@
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Asynchronous console log for the simulation threads. log() only claims a slot in a bounded
+// lock-free ring (Vyukov's algorithm, multi-producer/single-consumer) and stores the event, its
+// ints and a nanoTime stamp; a single daemon thread formats the records and prints them to
+// System.out in batches. Logging threads therefore never contend on System.out's lock or wait
+// on console I/O, which matters most inside BoundedBuffer's critical sections.
+// Code that prints to System.out directly should call flush() first to keep the output in order.
+public class EventLog {
+    private static final int CAPACITY = 1 << 14; // Records; logging blocks only if the writer falls this far behind
+    private static final int MASK = CAPACITY - 1;
+    private static final int MAX_BATCH = 1024;   // Records formatted per write to System.out
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+    private static final EventLog CONSOLE = new EventLog(System.out);
+
+    private final PrintStream out;
+    private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY); // Slot i is free for position p when its sequence is p
+    private final LogEvent[] events = new LogEvent[CAPACITY]; // null for a print() record
+    private final String[] texts = new String[CAPACITY];
+    private final int[] ids = new int[CAPACITY];
+    private final long[] firstArgs = new long[CAPACITY];
+    private final long[] secondArgs = new long[CAPACITY];
+    private final long[] times = new long[CAPACITY];
+    private final AtomicLong tail = new AtomicLong(); // Next position to claim
+    private final long origin = System.nanoTime();
+    private final Thread writer;
+    private long head;                   // Next position to print, used by the writer only
+    private volatile long written;       // Every position below this has been printed
+    private volatile boolean timestamps; // Prefix each line with the time since the log started
+
+    private EventLog(PrintStream out) {
+        this.out = out;
+        for (int i = 0; i < CAPACITY; i++) {
+            sequences.set(i, i);
+        }
+        writer = new Thread(this::writeLoop, "event-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::awaitWritten));
+    }
+
+    public static void log(LogEvent event, int id) {
+        CONSOLE.append(event, id, 0, 0, null);
+    }
+
+    public static void log(LogEvent event, int id, long arg) {
+        CONSOLE.append(event, id, arg, 0, null);
+    }
+
+    public static void log(LogEvent event, int id, long firstArg, long secondArg) {
+        CONSOLE.append(event, id, firstArg, secondArg, null);
+    }
+
+    // Queues preformatted text, such as a metrics report, so it cannot interleave with log lines
+    public static void print(String text) {
+        CONSOLE.append(null, 0, 0, 0, text);
+    }
+
+    // Blocks until everything logged before the call has been printed
+    public static void flush() {
+        CONSOLE.awaitWritten();
+    }
+
+    public static void setTimestamps(boolean enabled) {
+        CONSOLE.timestamps = enabled;
+    }
+
+    private void append(LogEvent event, int id, long firstArg, long secondArg, String text) {
+        long time = System.nanoTime();
+        long pos = tail.get();
+        for (int attempt = 0; ; ) {
+            int slot = (int) (pos & MASK);
+            long diff = sequences.get(slot) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                waitForWriter(attempt++); // Ring is full
+                pos = tail.get();
+            } else {
+                pos = tail.get(); // Another thread claimed this position
+            }
+        }
+
+        int slot = (int) (pos & MASK);
+        events[slot] = event;
+        texts[slot] = text;
+        ids[slot] = id;
+        firstArgs[slot] = firstArg;
+        secondArgs[slot] = secondArg;
+        times[slot] = time;
+        sequences.lazySet(slot, pos + 1); // Publish to the writer
+    }
+
+    // Backoff for a logging thread that found the ring full
+    private void waitForWriter(int attempt) {
+        if (attempt < 100) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, 50_000);
+        }
+    }
+
+    private void awaitWritten() {
+        long target = tail.get();
+        while (written < target) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, 50_000);
+        }
+    }
+
+    private void writeLoop() {
+        StringBuilder text = new StringBuilder(64 * MAX_BATCH);
+        while (true) {
+            int count = 0;
+            while (count < MAX_BATCH) {
+                int slot = (int) (head & MASK);
+                if (sequences.get(slot) != head + 1) {
+                    break; // Not published yet
+                }
+                format(text, slot);
+                texts[slot] = null; // Let large reports be collected
+                sequences.lazySet(slot, head + CAPACITY); // Free the slot for the next lap
+                head++;
+                count++;
+            }
+
+            if (count > 0) {
+                out.print(text); // One lock acquisition and flush for the whole batch
+                out.flush();
+                text.setLength(0);
+                written = head;
+            } else {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void format(StringBuilder text, int slot) {
+        if (timestamps) {
+            text.append(String.format("[+%.3f ms] ", (times[slot] - origin) / 1e6));
+        }
+        if (events[slot] == null) {
+            text.append(texts[slot]).append(System.lineSeparator());
+            return;
+        }
+        String template = events[slot].template;
+        long[] args = { ids[slot], firstArgs[slot], secondArgs[slot] };
+        int next = 0;
+        for (int i = 0; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c == '%' && i + 1 < template.length() && template.charAt(i + 1) == 'd') {
+                text.append(args[next++]);
+                i++;
+            } else {
+                text.append(c);
+            }
+        }
+        text.append(System.lineSeparator());
+    }
+}
@@ -0,0 +1,176 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+// Runs a schedule from Scheduling_Algorithms (or any policy that produces Gantt entries) on a
+// fixed pool of worker threads standing in for CPUs. Processes are handed to the pool in the
+// schedule's order, none before its arrival time, and each burst is real CPU work: the worker
+// spins until it has used burst_time * unitMillis of its own CPU time. The measured wall-clock
+// waiting and turnaround times are then compared with a reference simulation of the same dispatch
+// order on the same number of CPUs, so the differences show execution overhead only. With one CPU
+// the reference is the algorithm's own Gantt chart.
+public class Execution_Engine
+{
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static volatile long sink; // Keeps the spin loop from being optimized away
+
+    private final int cpus;
+    private final double unitMillis; // Wall-clock milliseconds per simulated time unit
+
+    public Execution_Engine(int cpus, double unitMillis)
+    {
+        if (cpus < 1 || !(unitMillis > 0))
+        {
+            throw new IllegalArgumentException("Need at least one CPU and a positive time unit");
+        }
+        this.cpus = cpus;
+        this.unitMillis = unitMillis;
+    }
+
+    // `processes` supplies each scheduled pid's arrival and burst time
+    public void execute(String algorithm, List<Process_Create> processes, List<Scheduling_Algorithms.GanttEntry> schedule)
+    {
+        System.out.printf("\n=== Executing %s on %d CPU(s), %.1f ms per time unit ===\n", algorithm, cpus, unitMillis);
+
+        Map<Integer, Process_Create> byPid = new HashMap<>();
+        for (Process_Create p : processes)
+        {
+            byPid.put(p.pid, p);
+        }
+
+        int count = schedule.size();
+        long[] arrivals = new long[count];
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(cpus, cpus, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        pool.prestartAllCoreThreads(); // Thread creation should not count as waiting time
+        long origin = System.nanoTime();
+
+        for (int i = 0; i < count; i++)
+        {
+            Process_Create p = byPid.get(schedule.get(i).pid);
+            int index = i;
+            long burstNanos = toNanos(p.burst_time);
+            arrivals[i] = origin + toNanos(p.arrival_time);
+
+            // Dispatch in schedule order: a later entry never overtakes one that has not arrived yet
+            sleepUntil(arrivals[i]);
+            pool.execute(() ->
+            {
+                starts[index] = System.nanoTime();
+                burn(burstNanos);
+                ends[index] = System.nanoTime();
+            });
+        }
+
+        pool.shutdown();
+        try
+        {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS); // Also publishes starts and ends
+        }
+        catch (InterruptedException e)
+        {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        long[] simStarts = new long[count];
+        long simEnd = listSchedule(schedule, byPid, simStarts);
+
+        System.out.printf("%-5s %-10s %-10s %-10s %-10s%n", "PID", "Sim_WT", "Real_WT", "Sim_TAT", "Real_TAT");
+        double simWT = 0, realWT = 0, simTAT = 0, realTAT = 0;
+        long lastEnd = origin;
+        for (int i = 0; i < count; i++)
+        {
+            Process_Create p = byPid.get(schedule.get(i).pid);
+            long simWaiting = simStarts[i] - p.arrival_time;
+            long simTurnaround = simWaiting + p.burst_time;
+            double waiting = toUnits(starts[i] - arrivals[i]);
+            double turnaround = toUnits(ends[i] - arrivals[i]);
+            System.out.printf("%-5d %-10d %-10.2f %-10d %-10.2f%n", p.pid, simWaiting, waiting, simTurnaround, turnaround);
+
+            simWT += simWaiting;
+            realWT += waiting;
+            simTAT += simTurnaround;
+            realTAT += turnaround;
+            lastEnd = Math.max(lastEnd, ends[i]);
+        }
+
+        System.out.printf("\nAverage Waiting Time: simulated %.2f, measured %.2f (%+.2f)\n",
+            simWT / count, realWT / count, (realWT - simWT) / count);
+        System.out.printf("Average Turnaround Time: simulated %.2f, measured %.2f (%+.2f)\n",
+            simTAT / count, realTAT / count, (realTAT - simTAT) / count);
+        System.out.printf("Total Execution Time: simulated %d, measured %.2f time units\n",
+            simEnd, toUnits(lastEnd - origin));
+    }
+
+    // What the pool does in simulated time: entry i is dispatched once it and every earlier entry
+    // have arrived, and starts on the first CPU to become free. Fills starts and returns the makespan.
+    private long listSchedule(List<Scheduling_Algorithms.GanttEntry> schedule, Map<Integer, Process_Create> byPid, long[] starts)
+    {
+        PriorityQueue<Long> freeAt = new PriorityQueue<>();
+        for (int c = 0; c < cpus; c++)
+        {
+            freeAt.add(0L);
+        }
+        long dispatched = 0;
+        long makespan = 0;
+        for (int i = 0; i < starts.length; i++)
+        {
+            Process_Create p = byPid.get(schedule.get(i).pid);
+            dispatched = Math.max(dispatched, p.arrival_time);
+            starts[i] = Math.max(dispatched, freeAt.poll());
+            long end = starts[i] + p.burst_time;
+            freeAt.add(end);
+            makespan = Math.max(makespan, end);
+        }
+        return makespan;
+    }
+
+    // Spins until the calling thread has used `cpuNanos` of CPU time (wall time if the JVM cannot
+    // measure thread CPU time), so an oversubscribed pool takes longer just like real processes would
+    private static void burn(long cpuNanos)
+    {
+        boolean cpuClock = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+        long start = cpuClock ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+        long x = 1;
+        while (true)
+        {
+            for (int i = 0; i < 10_000; i++)
+            {
+                x ^= x << 13;
+                x ^= x >>> 7;
+                x ^= x << 17;
+            }
+            long used = (cpuClock ? THREADS.getCurrentThreadCpuTime() : System.nanoTime()) - start;
+            if (used >= cpuNanos)
+            {
+                break;
+            }
+        }
+        sink += x;
+    }
+
+    private static void sleepUntil(long deadline)
+    {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0)
+        {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private long toNanos(int units)
+    {
+        return (long) (units * unitMillis * 1_000_000);
+    }
+
+    private double toUnits(long nanos)
+    {
+        return nanos / (unitMillis * 1_000_000);
+    }
+}
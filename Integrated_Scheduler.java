@@ -0,0 +1,312 @@
+import java.util.*;
+
+// Combined long-term and short-term scheduling on one CPU with contiguous memory.
+// An arriving process first waits in a FIFO job queue until the allocator can place its
+// memory_size KB; only then does it join the ready queue, where the CPU policy picks among
+// admitted processes (non-preemptive). Memory is freed when the process completes, which may
+// admit the next jobs. The run is a discrete-event loop over arrivals and completions, so its
+// cost is O(n log n) in the number of processes and its state is bounded by live processes.
+public class Integrated_Scheduler
+{
+    private static class Job
+    {
+        final Process_Create process; // Read only
+        final long order;             // Arrival order, the final tie-breaker
+        int address;
+        long admittedTime;
+
+        Job(Process_Create process, long order)
+        {
+            this.process = process;
+            this.order = order;
+        }
+    }
+
+    private final Online_Scheduler.Policy policy;
+    private final Memory_Manager.MemoryAllocation.Fit fit;
+    private final int memorySize; // KB
+
+    public Integrated_Scheduler(Online_Scheduler.Policy policy, Memory_Manager.MemoryAllocation.Fit fit, int memorySize)
+    {
+        if (memorySize <= 0)
+        {
+            throw new IllegalArgumentException("Memory size must be positive: " + memorySize);
+        }
+        this.policy = policy;
+        this.fit = fit;
+        this.memorySize = memorySize;
+    }
+
+    // Simulates the whole workload; the processes are not modified
+    public Result run(List<Process_Create> workload)
+    {
+        List<Process_Create> arrivals = new ArrayList<>(workload);
+        arrivals.sort(Comparator.comparingInt(p -> p.arrival_time));
+
+        Comparator<Job> byArrival = Comparator.comparingLong(j -> j.order);
+        Comparator<Job> order;
+        switch (policy)
+        {
+            case PRIORITY:
+                order = Comparator.<Job>comparingInt(j -> -j.process.priority).thenComparing(byArrival);
+                break;
+            case SJF:
+                order = Comparator.<Job>comparingInt(j -> j.process.burst_time).thenComparing(byArrival);
+                break;
+            default:
+                order = byArrival;
+                break;
+        }
+
+        Contiguous_Memory memory = new Contiguous_Memory(memorySize, fit);
+        ArrayDeque<Job> jobQueue = new ArrayDeque<>();
+        PriorityQueue<Job> ready = new PriorityQueue<>(order);
+        Result result = new Result(policy, fit, memorySize);
+
+        int next = 0;
+        long time = arrivals.isEmpty() ? 0 : arrivals.get(0).arrival_time;
+        long firstArrival = time;
+        Job running = null;
+        long runningEnd = 0;
+
+        while (true)
+        {
+            // Completion frees memory before this instant's admissions
+            if (running != null && runningEnd <= time)
+            {
+                memory.free(running.address, running.process.memory_size);
+                result.complete(running, time);
+                running = null;
+            }
+
+            while (next < arrivals.size() && arrivals.get(next).arrival_time <= time)
+            {
+                Process_Create p = arrivals.get(next);
+                if (p.memory_size > memorySize)
+                {
+                    result.rejected++; // Could never be admitted
+                }
+                else
+                {
+                    jobQueue.add(new Job(p, next));
+                }
+                next++;
+            }
+            result.maxJobQueue = Math.max(result.maxJobQueue, jobQueue.size());
+
+            // Admit strictly in arrival order so large processes cannot starve
+            while (!jobQueue.isEmpty())
+            {
+                int address = memory.allocate(jobQueue.peek().process.memory_size);
+                if (address < 0)
+                {
+                    break;
+                }
+                Job job = jobQueue.poll();
+                job.address = address;
+                job.admittedTime = time;
+                ready.add(job);
+            }
+            result.peakMemory = Math.max(result.peakMemory, memory.used());
+
+            if (running == null && !ready.isEmpty())
+            {
+                running = ready.poll();
+                runningEnd = time + running.process.burst_time;
+                result.start(running, time);
+            }
+
+            long nextTime = Long.MAX_VALUE;
+            if (running != null)
+            {
+                nextTime = runningEnd;
+            }
+            if (next < arrivals.size())
+            {
+                nextTime = Math.min(nextTime, arrivals.get(next).arrival_time);
+            }
+            if (nextTime == Long.MAX_VALUE)
+            {
+                break; // Nothing running and nothing left to arrive
+            }
+            result.memoryTime += (long) memory.used() * (nextTime - time);
+            time = nextTime;
+        }
+
+        result.makespan = time - firstArrival;
+        return result;
+    }
+
+    public static class Result
+    {
+        final Online_Scheduler.Policy policy;
+        final Memory_Manager.MemoryAllocation.Fit fit;
+        final int memorySize;
+        final Streaming_Stats waitingTimes = new Streaming_Stats();    // Arrival to start
+        final Streaming_Stats turnaroundTimes = new Streaming_Stats();
+        long completed;
+        long rejected;
+        long makespan;
+        long totalMemoryWait;    // Arrival to admission
+        long busyTime;
+        long memoryTime;         // KB x time units in use
+        int peakMemory;
+        int maxJobQueue;
+
+        private Result(Online_Scheduler.Policy policy, Memory_Manager.MemoryAllocation.Fit fit, int memorySize)
+        {
+            this.policy = policy;
+            this.fit = fit;
+            this.memorySize = memorySize;
+        }
+
+        private void start(Job job, long time)
+        {
+            waitingTimes.add(time - job.process.arrival_time);
+            totalMemoryWait += job.admittedTime - job.process.arrival_time;
+            busyTime += job.process.burst_time;
+        }
+
+        private void complete(Job job, long time)
+        {
+            completed++;
+            turnaroundTimes.add(time - job.process.arrival_time);
+        }
+
+        double averageWaitingTime()
+        {
+            return waitingTimes.getMean();
+        }
+
+        double averageMemoryWait()
+        {
+            return completed == 0 ? 0 : (double) totalMemoryWait / completed;
+        }
+
+        double averageTurnaroundTime()
+        {
+            return turnaroundTimes.getMean();
+        }
+
+        // Completed processes per 100 time units
+        double throughput()
+        {
+            return makespan == 0 ? 0 : 100.0 * completed / makespan;
+        }
+
+        double cpuUtilization()
+        {
+            return makespan == 0 ? 0 : 100.0 * busyTime / makespan;
+        }
+
+        double memoryUtilization()
+        {
+            return makespan == 0 ? 0 : 100.0 * memoryTime / ((double) memorySize * makespan);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%-8s %-5s %6d KB  done=%-8d rejected=%-4d throughput=%.2f/100t avg WT=%.2f (memory %.2f) "
+                    + "avg TAT=%.2f WT p99=%d max=%d CPU=%.2f%% memory=%.2f%% peak=%d KB max job queue=%d",
+                policy, fit, memorySize, completed, rejected, throughput(), averageWaitingTime(), averageMemoryWait(),
+                averageTurnaroundTime(), waitingTimes.getQuantile(0.99), waitingTimes.getMax(),
+                cpuUtilization(), memoryUtilization(), peakMemory, maxJobQueue);
+        }
+    }
+}
+
+// Free list for variable-size contiguous allocation. Holes are indexed both by address, for
+// coalescing on free and first fit, and by (size, address), so best and worst fit are O(log n).
+class Contiguous_Memory
+{
+    private final TreeMap<Integer, Integer> holesByAddress = new TreeMap<>(); // start -> size
+    private final TreeSet<Long> holesBySize = new TreeSet<>();                // size << 32 | start
+    private final Memory_Manager.MemoryAllocation.Fit fit;
+    private int used;
+
+    Contiguous_Memory(int size, Memory_Manager.MemoryAllocation.Fit fit)
+    {
+        this.fit = fit;
+        addHole(0, size);
+    }
+
+    // Returns the start address of a block of `request` KB, or -1 if no hole is large enough
+    int allocate(int request)
+    {
+        int start = -1;
+        int holeSize = 0;
+        if (fit == Memory_Manager.MemoryAllocation.Fit.FIRST)
+        {
+            for (Map.Entry<Integer, Integer> hole : holesByAddress.entrySet())
+            {
+                if (hole.getValue() >= request)
+                {
+                    start = hole.getKey();
+                    holeSize = hole.getValue();
+                    break;
+                }
+            }
+        }
+        else
+        {
+            Long key = fit == Memory_Manager.MemoryAllocation.Fit.BEST
+                ? holesBySize.ceiling((long) request << 32)
+                : (holesBySize.isEmpty() ? null : holesBySize.last());
+            if (key != null && (int) (key >>> 32) >= request)
+            {
+                start = (int) (key & 0xFFFFFFFFL);
+                holeSize = (int) (key >>> 32);
+            }
+        }
+        if (start < 0)
+        {
+            return -1;
+        }
+
+        removeHole(start, holeSize);
+        if (holeSize > request)
+        {
+            addHole(start + request, holeSize - request);
+        }
+        used += request;
+        return start;
+    }
+
+    // Returns a block to the free list, merging it with free neighbours
+    void free(int start, int length)
+    {
+        used -= length;
+        Map.Entry<Integer, Integer> before = holesByAddress.lowerEntry(start);
+        if (before != null && before.getKey() + before.getValue() == start)
+        {
+            removeHole(before.getKey(), before.getValue());
+            start = before.getKey();
+            length += before.getValue();
+        }
+        Integer afterSize = holesByAddress.get(start + length);
+        if (afterSize != null)
+        {
+            removeHole(start + length, afterSize);
+            length += afterSize;
+        }
+        addHole(start, length);
+    }
+
+    int used()
+    {
+        return used;
+    }
+
+    private void addHole(int start, int length)
+    {
+        holesByAddress.put(start, length);
+        holesBySize.add((long) length << 32 | start);
+    }
+
+    private void removeHole(int start, int length)
+    {
+        holesByAddress.remove(start);
+        holesBySize.remove((long) length << 32 | start);
+    }
+}
@@ -0,0 +1,141 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fixed-size log-linear histogram in the style of HdrHistogram. Values below 2^precisionBits are
+// counted exactly; larger values fall into buckets whose width is at most 2^-(precisionBits - 1)
+// of the value. Recording is lock-free and safe from any number of threads: each thread writes
+// to one of several stripes (like LongAdder cells) so concurrent recorders rarely share a cache line.
+public class LatencyHistogram {
+    private final int precisionBits;
+    private final int subBuckets;     // Exact values 0 .. subBuckets - 1
+    private final int halfSubBuckets; // Buckets per power of two above the exact range
+    private final int bucketCount;
+    private final int stripeMask;
+    private final AtomicLongArray counts; // Stripe s occupies [s * bucketCount, (s + 1) * bucketCount)
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        this(7);
+    }
+
+    public LatencyHistogram(int precisionBits) {
+        this(precisionBits, 1);
+    }
+
+    // `stripes` is rounded up to a power of two; use more than one for histograms recorded concurrently
+    public LatencyHistogram(int precisionBits, int stripes) {
+        if (precisionBits < 1 || precisionBits > 16) {
+            throw new IllegalArgumentException("Precision must be 1-16 bits: " + precisionBits);
+        }
+        this.precisionBits = precisionBits;
+        this.subBuckets = 1 << precisionBits;
+        this.halfSubBuckets = subBuckets >> 1;
+        this.bucketCount = subBuckets + (64 - precisionBits) * halfSubBuckets;
+        int stripeCount = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripeMask = stripeCount - 1;
+        this.counts = new AtomicLongArray(bucketCount * stripeCount);
+    }
+
+    // Records one value; negative values are counted as zero
+    public void record(long value) {
+        long v = Math.max(0, value);
+        int stripe = stripeMask == 0 ? 0 : (int) Thread.currentThread().threadId() & stripeMask;
+        counts.incrementAndGet(stripe * bucketCount + indexOf(v));
+        sum.add(v);
+        if (v > max.get()) {
+            max.accumulate(v);
+        }
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    // Value at quantile q (0.0 - 1.0), within the histogram's precision
+    public long getValueAtQuantile(double q) {
+        long[] merged = mergedCounts();
+        long count = 0;
+        for (long c : merged) {
+            count += c;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < merged.length; i++) {
+            seen += merged[i];
+            if (seen >= rank) {
+                return Math.min(valueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    // Adds every value recorded in `other`, which must use the same precision
+    public void add(LatencyHistogram other) {
+        if (other.precisionBits != precisionBits) {
+            throw new IllegalArgumentException("Cannot merge histograms with different precision");
+        }
+        long[] merged = other.mergedCounts();
+        for (int i = 0; i < merged.length; i++) {
+            if (merged[i] != 0) {
+                counts.addAndGet(i, merged[i]);
+            }
+        }
+        sum.add(other.sum.sum());
+        max.accumulate(other.max.get());
+    }
+
+    // Not atomic with respect to concurrent record() calls
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        sum.reset();
+        max.reset();
+    }
+
+    // Bucket counts summed over all stripes
+    private long[] mergedCounts() {
+        long[] merged = new long[bucketCount];
+        for (int i = 0; i < counts.length(); i++) {
+            merged[i % bucketCount] += counts.get(i);
+        }
+        return merged;
+    }
+
+    private int indexOf(long v) {
+        if (v < subBuckets) {
+            return (int) v;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(v) - precisionBits; // >= 1
+        return subBuckets + (shift - 1) * halfSubBuckets + (int) (v >>> shift) - halfSubBuckets;
+    }
+
+    // Midpoint of the values that map to bucket `index`
+    private long valueOf(int index) {
+        if (index < subBuckets) {
+            return index;
+        }
+        int offset = index - subBuckets;
+        int shift = offset / halfSubBuckets + 1;
+        long lowest = (long) (offset % halfSubBuckets + halfSubBuckets) << shift;
+        return lowest + (1L << (shift - 1));
+    }
+}
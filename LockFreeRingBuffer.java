@@ -0,0 +1,292 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Lock-free bounded multi-producer/multi-consumer ring buffer (Vyukov's algorithm).
+// Every slot carries a sequence number telling producers and consumers whose turn it is,
+// so put/take need a single CAS on the shared cursor and no locks, nodes or boxing.
+// Blocking spins, yields and parks on its own rather than going through a SimulationClock, so the
+// ring only works with clocks that follow wall time; it rejects DiscreteEventClock, which would
+// never see a parked thread go idle and so would never advance simulated time.
+class LockFreeRingBuffer implements SharedBuffer {
+    private static final int PAD = 8;                  // Longs per 64-byte cache line
+    private static final int ENQUEUE = PAD;            // Producer cursor, alone on its cache line
+    private static final int DEQUEUE = 3 * PAD;        // Consumer cursor, alone on its cache line
+    private static final long EMPTY = Long.MIN_VALUE;  // Returned by poll() when there is no item
+    private static final long SAMPLED = 1L << 32;      // Set by pollSlot() when the item was stamped for metrics
+
+    private final int[] items;
+    private final AtomicLongArray sequences; // Slot i's sequence is stored at (i + 1) * PAD
+    private final AtomicLongArray cursors;
+    private final int capacity;
+    private final int mask;                  // capacity - 1 for power-of-two capacities, otherwise -1
+    private final boolean verbose;
+    private PipelineMetrics metrics;         // Optional instrumentation, null when disabled
+    private long[] enqueueTimes;             // nanoTime a slot was filled at a sampled position; written before the slot is published
+
+    // Waiting policy for blocking put/take: spin, then yield, then park
+    private final int spinTries;
+    private final int yieldTries;
+    private final long parkNanos;
+
+    public LockFreeRingBuffer(int capacity) {
+        this(capacity, true);
+    }
+
+    public LockFreeRingBuffer(int capacity, boolean verbose) {
+        this(capacity, verbose, 100, 10, 50_000);
+    }
+
+    // For simulations: `clock` is only checked, since waiting here always happens in wall time
+    public LockFreeRingBuffer(int capacity, boolean verbose, SimulationClock clock) {
+        this(capacity, verbose);
+        if (clock instanceof DiscreteEventClock) {
+            throw new IllegalArgumentException(
+                "LockFreeRingBuffer cannot block through a discrete-event clock; use BoundedBuffer with --discrete");
+        }
+    }
+
+    public LockFreeRingBuffer(int capacity, boolean verbose, int spinTries, int yieldTries, long parkNanos) {
+        // With one slot, sequence pos + 1 would mean both "full at pos" and "free at pos + 1"
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = Integer.bitCount(capacity) == 1 ? capacity - 1 : -1;
+        this.items = new int[capacity];
+        this.sequences = new AtomicLongArray((capacity + 2) * PAD);
+        this.cursors = new AtomicLongArray(5 * PAD);
+        this.verbose = verbose;
+        this.spinTries = spinTries;
+        this.yieldTries = yieldTries;
+        this.parkNanos = parkNanos;
+
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(sequenceIndex(i), i); // Slot i is free for the producer at position i
+        }
+    }
+
+    // Enables instrumentation; must be called before any producer or consumer starts.
+    // Put/take counts are the cursor positions, so only sampled positions cost anything extra.
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+        this.enqueueTimes = metrics != null ? new long[capacity] : null;
+        if (metrics != null) {
+            metrics.bindCounters(() -> cursors.get(ENQUEUE), () -> cursors.get(DEQUEUE));
+        }
+    }
+
+    // Non-blocking insert; returns false if the buffer is full
+    public boolean offer(int item) {
+        return claimSlot(item) >= 0;
+    }
+
+    // Non-blocking remove; returns EMPTY if there is nothing to take
+    public long poll() {
+        long packed = pollSlot();
+        return packed == EMPTY ? EMPTY : (int) packed;
+    }
+
+    // Inserts item if a slot is free and returns its position, otherwise -1
+    private long claimSlot(int item) {
+        long pos = cursors.get(ENQUEUE);
+        while (true) {
+            int slot = slotOf(pos);
+            long seq = sequences.get(sequenceIndex(slot));
+            long diff = seq - pos;
+
+            if (diff == 0) {
+                if (cursors.compareAndSet(ENQUEUE, pos, pos + 1)) {
+                    items[slot] = item;
+                    if (enqueueTimes != null && metrics.isSampled(pos)) {
+                        enqueueTimes[slot] = System.nanoTime();
+                    }
+                    sequences.lazySet(sequenceIndex(slot), pos + 1); // Publish to consumers
+                    return pos;
+                }
+                pos = cursors.get(ENQUEUE);
+            } else if (diff < 0) {
+                return -1; // Slot still holds an item from the previous lap
+            } else {
+                pos = cursors.get(ENQUEUE); // Another producer claimed this position
+            }
+        }
+    }
+
+    // Removes the next item, returning it in the low 32 bits (plus the SAMPLED flag), or EMPTY
+    private long pollSlot() {
+        long pos = cursors.get(DEQUEUE);
+        while (true) {
+            int slot = slotOf(pos);
+            long seq = sequences.get(sequenceIndex(slot));
+            long diff = seq - (pos + 1);
+
+            if (diff == 0) {
+                if (cursors.compareAndSet(DEQUEUE, pos, pos + 1)) {
+                    long packed = items[slot] & 0xFFFFFFFFL;
+                    if (enqueueTimes != null && metrics.isSampled(pos)) { // Same position was stamped by its producer
+                        metrics.recordResidence(System.nanoTime() - enqueueTimes[slot]);
+                        packed |= SAMPLED;
+                    }
+                    sequences.lazySet(sequenceIndex(slot), pos + capacity); // Free slot for the next lap
+                    return packed;
+                }
+                pos = cursors.get(DEQUEUE);
+            } else if (diff < 0) {
+                return EMPTY; // Producer has not published this slot yet
+            } else {
+                pos = cursors.get(DEQUEUE); // Another consumer took this position
+            }
+        }
+    }
+
+    @Override
+    public void put(int item, int producerId) throws InterruptedException {
+        if (verbose) {
+            EventLog.log(LogEvent.PRODUCER_WAITING, producerId, item);
+        }
+
+        putOne(item);
+
+        if (verbose) {
+            EventLog.log(LogEvent.PRODUCER_PUT, producerId, item, getSize());
+        }
+    }
+
+    @Override
+    public int take(int consumerId) throws InterruptedException {
+        if (verbose) {
+            EventLog.log(LogEvent.CONSUMER_WAITING, consumerId);
+        }
+
+        int item = takeOne();
+
+        if (verbose) {
+            EventLog.log(LogEvent.CONSUMER_TOOK, consumerId, item, getSize());
+        }
+        return item;
+    }
+
+    // Items are claimed one slot at a time; the batch only saves the per-call logging and dispatch
+    @Override
+    public void putAll(int[] items, int producerId) throws InterruptedException {
+        if (verbose) {
+            EventLog.log(LogEvent.PRODUCER_WAITING_BATCH, producerId, items.length);
+        }
+
+        for (int item : items) {
+            putOne(item);
+        }
+
+        if (verbose) {
+            EventLog.log(LogEvent.PRODUCER_PUT_BATCH, producerId, items.length, getSize());
+        }
+    }
+
+    @Override
+    public int takeUpTo(int[] dst, int max, int consumerId) throws InterruptedException {
+        int limit = Math.min(max, dst.length);
+        if (limit <= 0) {
+            return 0;
+        }
+        if (verbose) {
+            EventLog.log(LogEvent.CONSUMER_WAITING_BATCH, consumerId, limit);
+        }
+
+        dst[0] = takeOne();
+        int count = 1 + drain(dst, 1, limit);
+
+        if (verbose) {
+            EventLog.log(LogEvent.CONSUMER_TOOK_BATCH, consumerId, count, getSize());
+        }
+        return count;
+    }
+
+    @Override
+    public int drainTo(int[] dst, int consumerId) {
+        int count = drain(dst, 0, dst.length);
+
+        if (verbose && count > 0) {
+            EventLog.log(LogEvent.CONSUMER_TOOK_BATCH, consumerId, count, getSize());
+        }
+        return count;
+    }
+
+    // Approximate when producers or consumers are active
+    @Override
+    public int getSize() {
+        long size = cursors.get(ENQUEUE) - cursors.get(DEQUEUE);
+        return (int) Math.max(0, Math.min(capacity, size));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Blocking insert of a single item, timing the wait only if the buffer was full
+    private void putOne(int item) throws InterruptedException {
+        long waitStart = 0;
+        long pos;
+        for (int attempt = 0; (pos = claimSlot(item)) < 0; attempt++) {
+            if (attempt == 0 && metrics != null) {
+                waitStart = System.nanoTime();
+                metrics.recordBlockedPut();
+            }
+            idle(attempt);
+        }
+        if (metrics != null && metrics.isSampled(pos)) {
+            metrics.recordPutWait(waitStart != 0 ? System.nanoTime() - waitStart : 0, getSize());
+        }
+    }
+
+    // Blocking remove of a single item, timing the wait only if the buffer was empty
+    private int takeOne() throws InterruptedException {
+        long waitStart = 0;
+        long packed;
+        for (int attempt = 0; (packed = pollSlot()) == EMPTY; attempt++) {
+            if (attempt == 0 && metrics != null) {
+                waitStart = System.nanoTime();
+                metrics.recordBlockedTake();
+            }
+            idle(attempt);
+        }
+        if ((packed & SAMPLED) != 0) {
+            metrics.recordTakeWait(waitStart != 0 ? System.nanoTime() - waitStart : 0, getSize());
+        }
+        return (int) packed;
+    }
+
+    // Non-blocking removal into dst[from .. limit); returns how many items were taken
+    private int drain(int[] dst, int from, int limit) {
+        int count = 0;
+        long packed;
+        while (from + count < limit && (packed = pollSlot()) != EMPTY) {
+            dst[from + count++] = (int) packed;
+            if ((packed & SAMPLED) != 0) {
+                metrics.recordTakeWait(0, getSize());
+            }
+        }
+        return count;
+    }
+
+    // Back off progressively while waiting for a slot or an item
+    private void idle(int attempt) throws InterruptedException {
+        if (attempt < spinTries) {
+            Thread.onSpinWait();
+        } else if (attempt < spinTries + yieldTries) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(this, parkNanos);
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    private int slotOf(long pos) {
+        return mask >= 0 ? (int) (pos & mask) : (int) (pos % capacity);
+    }
+
+    private static int sequenceIndex(int slot) {
+        return (slot + 1) * PAD;
+    }
+}
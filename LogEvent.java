@@ -0,0 +1,27 @@
+// Simulation log lines. Each template's %d placeholders are filled, in order, from the
+// record's id and its two arguments.
+enum LogEvent {
+    PROCESS_STARTED("[Process %d] Started. Burst time: %ds"),
+    PROCESS_INTERRUPTED("[Process %d] Interrupted!"),
+    PROCESS_FINISHED("[Process %d] Finished."),
+    PRODUCER_STARTED("[Producer %d] Started."),
+    PRODUCER_WAITING("[Producer %d] Waiting to put item %d..."),
+    PRODUCER_PUT("[Producer %d] Put item %d into buffer. Buffer size: %d"),
+    PRODUCER_WAITING_BATCH("[Producer %d] Waiting to put %d items..."),
+    PRODUCER_PUT_BATCH("[Producer %d] Put %d items into buffer. Buffer size: %d"),
+    PRODUCER_FINISHED("[Producer %d] Finished."),
+    CONSUMER_STARTED("[Consumer %d] Started."),
+    CONSUMER_WAITING("[Consumer %d] Waiting to take item..."),
+    CONSUMER_TOOK("[Consumer %d] Took item %d from buffer. Buffer size: %d"),
+    CONSUMER_WAITING_BATCH("[Consumer %d] Waiting to take up to %d items..."),
+    CONSUMER_TOOK_BATCH("[Consumer %d] Took %d items from buffer. Buffer size: %d"),
+    CONSUMER_PROCESSING("[Consumer %d] Processing item %d..."),
+    CONSUMER_PROCESSING_BATCH("[Consumer %d] Processing %d items..."),
+    CONSUMER_FINISHED("[Consumer %d] Finished.");
+
+    final String template;
+
+    LogEvent(String template) {
+        this.template = template;
+    }
+}
@@ -13,6 +13,7 @@ public class Memory_Manager
             int endAddress;
             boolean allocated;
             String processId;
+            int allocatedSize; // KB the process actually uses; the rest of the block is internal fragmentation
             
             public MemoryBlock(int id, int size, int startAddress) 
             {
@@ -25,6 +26,12 @@ public class Memory_Manager
             }
         }
         
+        // Which free block a request goes to: the first, smallest or largest one that fits
+        public enum Fit
+        {
+            FIRST, BEST, WORST
+        }
+        
         // tracks memory requirements for each process
         static class ProcessMemory 
         {
@@ -40,109 +47,329 @@ public class Memory_Manager
         
         // First Fit: Allocate too first available block that's large enough
         public static void firstFit(List<MemoryBlock> memory, List<ProcessMemory> processes)
+        {
+            firstFit(memory, processes, null);
+        }
+        
+        // With a compactor, a failed allocation compacts memory and retries if enough memory is free overall
+        public static void firstFit(List<MemoryBlock> memory, List<ProcessMemory> processes, Compactor compactor)
         {
             System.out.println("\n=== First Fit Memory Allocation ===");
             printMemoryLayout(memory, "Initial Memory Layout");
-            
-            for (ProcessMemory process : processes) 
-            {
-                boolean allocated = false;
-                for (MemoryBlock block : memory) 
-                {
-                    if (!block.allocated && block.size >= process.memoryRequired) 
-                    {
-                        block.allocated = true;
-                        block.processId = process.processId;
-                        System.out.printf("Allocated Process %s (%d KB) to Block %d (%d KB)\n",
-                            process.processId, process.memoryRequired, block.id, block.size);
-                        allocated = true;
-                        break;  // Stop searching after first fit
-                    }
-                }
-                if (!allocated) 
-                {
-                    System.out.printf("Failed to allocate Process %s (%d KB) - No suitable block found\n",
-                        process.processId, process.memoryRequired);
-                }
-            }
-            
+            allocateAndReport(memory, processes, Fit.FIRST, compactor);
             printMemoryLayout(memory, "Final Memory Layout after First Fit");
         }
         
         // Best Fit: Allocate to smallest sufficient block
         public static void bestFit(List<MemoryBlock> memory, List<ProcessMemory> processes) 
+        {
+            bestFit(memory, processes, null);
+        }
+        
+        public static void bestFit(List<MemoryBlock> memory, List<ProcessMemory> processes, Compactor compactor) 
         {
             System.out.println("\n=== Best Fit Memory Allocation ===");
             printMemoryLayout(memory, "Initial Memory Layout");
-            
+            allocateAndReport(memory, processes, Fit.BEST, compactor);
+            printMemoryLayout(memory, "Final Memory Layout after Best Fit");
+        }
+        
+        // Worst Fit: Allocate to largest available block
+        public static void worstFit(List<MemoryBlock> memory, List<ProcessMemory> processes) 
+        {
+            worstFit(memory, processes, null);
+        }
+        
+        public static void worstFit(List<MemoryBlock> memory, List<ProcessMemory> processes, Compactor compactor) 
+        {
+            System.out.println("\n=== Worst Fit Memory Allocation ===");
+            printMemoryLayout(memory, "Initial Memory Layout");
+            allocateAndReport(memory, processes, Fit.WORST, compactor);
+            printMemoryLayout(memory, "Final Memory Layout after Worst Fit");
+        }
+        
+        // Allocates each process with the given fit, printing the outcome; compactor may be null
+        private static void allocateAndReport(List<MemoryBlock> memory, List<ProcessMemory> processes,
+                                              Fit fit, Compactor compactor)
+        {
             for (ProcessMemory process : processes) 
             {
-                MemoryBlock bestBlock = null;
-                for (MemoryBlock block : memory) 
+                MemoryBlock block = findBlock(memory, process.memoryRequired, fit);
+                if (block != null) 
                 {
-                    if (!block.allocated && block.size >= process.memoryRequired) 
-                    {
-                        if (bestBlock == null || block.size < bestBlock.size) 
-                        {
-                            bestBlock = block;
-                        }
-                    }
+                    assign(block, process);
+                    System.out.printf("Allocated Process %s (%d KB) to Block %d (%d KB)\n",
+                        process.processId, process.memoryRequired, block.id, block.size);
                 }
-                
-                if (bestBlock != null) 
+                else if (compactor != null && (block = compactor.compactFor(memory, process.memoryRequired, fit)) != null) 
                 {
-                    bestBlock.allocated = true;
-                    bestBlock.processId = process.processId;
-                    System.out.printf("Allocated Process %s (%d KB) to Block %d (%d KB)\n",
-                        process.processId, process.memoryRequired, bestBlock.id, bestBlock.size);
-                } 
+                    assign(block, process);
+                    System.out.printf("Allocated Process %s (%d KB) to Block %d (%d KB) after compaction "
+                        + "(moved %d KB in %d blocks, pause %.1f us)\n",
+                        process.processId, process.memoryRequired, block.id, block.size,
+                        compactor.lastMovedKB, compactor.lastMovedBlocks, compactor.lastPauseNanos / 1e3);
+                }
+                else if (compactor != null && compactor.lastCompacted) 
+                {
+                    // The pass still cost a pause, which is the price of a budget too small to finish
+                    System.out.printf("Failed to allocate Process %s (%d KB) - No suitable block found after compaction "
+                        + "(moved %d KB in %d blocks, pause %.1f us)\n",
+                        process.processId, process.memoryRequired,
+                        compactor.lastMovedKB, compactor.lastMovedBlocks, compactor.lastPauseNanos / 1e3);
+                }
                 else 
                 {
                     System.out.printf("Failed to allocate Process %s (%d KB) - No suitable block found\n",
                         process.processId, process.memoryRequired);
                 }
             }
-            
-            printMemoryLayout(memory, "Final Memory Layout after Best Fit");
         }
         
-        // Worst Fit: Allocate to largest available block
-        public static void worstFit(List<MemoryBlock> memory, List<ProcessMemory> processes) 
+        private static void assign(MemoryBlock block, ProcessMemory process)
         {
-            System.out.println("\n=== Worst Fit Memory Allocation ===");
-            printMemoryLayout(memory, "Initial Memory Layout");
-            
+            block.allocated = true;
+            block.processId = process.processId;
+            block.allocatedSize = process.memoryRequired;
+        }
+        
+        // Free block the given fit picks for `size` KB, or null: first fit takes the first in list
+        // order, best fit the smallest and worst fit the largest (earliest in the list on ties)
+        static MemoryBlock findBlock(List<MemoryBlock> memory, int size, Fit fit)
+        {
+            MemoryBlock chosen = null;
+            for (MemoryBlock block : memory) 
+            {
+                if (block.allocated || block.size < size) 
+                {
+                    continue;
+                }
+                if (fit == Fit.FIRST) 
+                {
+                    return block;
+                }
+                if (chosen == null
+                    || (fit == Fit.BEST && block.size < chosen.size)
+                    || (fit == Fit.WORST && block.size > chosen.size)) 
+                {
+                    chosen = block;
+                }
+            }
+            return chosen;
+        }
+        
+        // Same allocation as firstFit/bestFit/worstFit without any output; returns how many processes were placed
+        public static int allocateAll(List<MemoryBlock> memory, List<ProcessMemory> processes, Fit fit)
+        {
+            int placed = 0;
             for (ProcessMemory process : processes) 
             {
-                MemoryBlock worstBlock = null;
+                MemoryBlock block = findBlock(memory, process.memoryRequired, fit);
+                if (block != null) 
+                {
+                    assign(block, process);
+                    placed++;
+                }
+            }
+            return placed;
+        }
+
+        // Relocates allocated blocks toward the lowest address so scattered free space, including the
+        // unused tail of each block, becomes one hole. Full compaction slides every block; incremental
+        // compaction moves at most budgetKB per pass and stops as soon as the hole fits the request.
+        // A pass always moves at least one block, so a block larger than the budget overruns it
+        // (counted in printSummary()) rather than leaving every pass unable to make progress.
+        // Copying is not performed for real: its cost is modelled as nanosPerKB for every KB moved plus
+        // nanosPerBlock for every block relocated, and the totals are kept for printSummary().
+        public static class Compactor
+        {
+            private final int budgetKB;       // 0 for full compaction
+            private final long nanosPerKB;
+            private final long nanosPerBlock;
+            
+            boolean lastCompacted; // Whether the latest compactFor() call ran a pass; the last* fields describe it
+            int lastMovedKB;
+            int lastMovedBlocks;
+            long lastPauseNanos;
+            
+            private int compactions;
+            private long totalMovedKB;
+            private long totalMovedBlocks;
+            private long totalPauseNanos;
+            private long maxPauseNanos;
+            private int recovered;     // Allocations that succeeded after compaction
+            private int unrecovered;   // Compacted, but the hole was still too small (budget ran out)
+            private int insufficient;  // Not enough free memory in total, so no compaction was tried
+            private int overBudget;    // Passes whose first block alone was larger than budgetKB
+            
+            // About 4 GB/s of copy bandwidth plus 1 us to update each relocated block's base address
+            public Compactor(int budgetKB)
+            {
+                this(budgetKB, 250, 1000);
+            }
+            
+            public Compactor(int budgetKB, long nanosPerKB, long nanosPerBlock)
+            {
+                this.budgetKB = Math.max(0, budgetKB);
+                this.nanosPerKB = nanosPerKB;
+                this.nanosPerBlock = nanosPerBlock;
+            }
+            
+            // Compacts if the free memory would fit `request`, then returns the block `fit` chooses,
+            // split to exactly `request` KB, or null if the request still cannot be placed
+            MemoryBlock compactFor(List<MemoryBlock> memory, int request, Fit fit)
+            {
+                lastCompacted = false;
+                int reclaimable = 0;
                 for (MemoryBlock block : memory) 
                 {
-                    if (!block.allocated && block.size >= process.memoryRequired) 
+                    reclaimable += block.allocated ? block.size - block.allocatedSize : block.size;
+                }
+                if (reclaimable < request) 
+                {
+                    insufficient++;
+                    return null;
+                }
+                
+                compact(memory, request);
+                lastCompacted = true;
+                MemoryBlock block = findBlock(memory, request, fit);
+                if (block == null) 
+                {
+                    unrecovered++;
+                    return null;
+                }
+                recovered++;
+                
+                // The hole is carved to size, so the rest stays available to later requests
+                if (block.size > request) 
+                {
+                    MemoryBlock rest = new MemoryAllocation().new MemoryBlock(nextId(memory), block.size - request, block.startAddress + request);
+                    block.size = request;
+                    block.endAddress = block.startAddress + request - 1;
+                    memory.add(memory.indexOf(block) + 1, rest);
+                }
+                return block;
+            }
+            
+            private void compact(List<MemoryBlock> memory, int request)
+            {
+                List<MemoryBlock> blocks = new ArrayList<>(memory);
+                blocks.sort(Comparator.comparingInt(b -> b.startAddress));
+                int end = blocks.get(blocks.size() - 1).endAddress + 1;
+                int cursor = blocks.get(0).startAddress; // Where the next allocated block will sit
+                int movedKB = 0;
+                int movedBlocks = 0;
+                List<MemoryBlock> compacted = new ArrayList<>();
+                
+                int i = 0;
+                for (; i < blocks.size(); i++) 
+                {
+                    MemoryBlock block = blocks.get(i);
+                    if (!block.allocated) 
                     {
-                        if (worstBlock == null || block.size > worstBlock.size) 
+                        continue; // Becomes part of the hole
+                    }
+                    if (block.startAddress != cursor) 
+                    {
+                        if (budgetKB > 0 && movedBlocks > 0 && movedKB + block.allocatedSize > budgetKB) 
                         {
-                            worstBlock = block;
+                            break;
                         }
+                        movedKB += block.allocatedSize;
+                        movedBlocks++;
+                        block.startAddress = cursor;
+                    }
+                    block.size = block.allocatedSize; // Trimming the tail costs no copying
+                    block.endAddress = block.startAddress + block.size - 1;
+                    cursor += block.size;
+                    compacted.add(block);
+                    
+                    if (budgetKB > 0 && nextAllocatedStart(blocks, i + 1, end) - cursor >= request) 
+                    {
+                        i++;
+                        break; // Incremental: the hole is already big enough
                     }
                 }
                 
-                if (worstBlock != null) 
+                // Free blocks up to the first untouched allocated block merge into one hole
+                while (i < blocks.size() && !blocks.get(i).allocated) 
                 {
-                    worstBlock.allocated = true;
-                    worstBlock.processId = process.processId;
-                    System.out.printf("Allocated Process %s (%d KB) to Block %d (%d KB)\n",
-                        process.processId, process.memoryRequired, worstBlock.id, worstBlock.size);
-                } 
-                else 
+                    i++;
+                }
+                int holeEnd = i < blocks.size() ? blocks.get(i).startAddress : end;
+                if (holeEnd > cursor) 
                 {
-                    System.out.printf("Failed to allocate Process %s (%d KB) - No suitable block found\n",
-                        process.processId, process.memoryRequired);
+                    // A free block that nothing was moved into keeps its id and just grows over its neighbours
+                    MemoryBlock hole = null;
+                    for (MemoryBlock block : blocks) 
+                    {
+                        if (!block.allocated && block.startAddress == cursor) 
+                        {
+                            hole = block;
+                        }
+                    }
+                    if (hole == null) 
+                    {
+                        hole = new MemoryAllocation().new MemoryBlock(nextId(memory), holeEnd - cursor, cursor);
+                    }
+                    hole.size = holeEnd - cursor;
+                    hole.endAddress = holeEnd - 1;
+                    compacted.add(hole);
+                }
+                compacted.addAll(blocks.subList(i, blocks.size()));
+                memory.clear();
+                memory.addAll(compacted);
+                
+                lastMovedKB = movedKB;
+                lastMovedBlocks = movedBlocks;
+                lastPauseNanos = movedKB * nanosPerKB + movedBlocks * nanosPerBlock;
+                compactions++;
+                if (budgetKB > 0 && movedKB > budgetKB) 
+                {
+                    overBudget++;
                 }
+                totalMovedKB += movedKB;
+                totalMovedBlocks += movedBlocks;
+                totalPauseNanos += lastPauseNanos;
+                maxPauseNanos = Math.max(maxPauseNanos, lastPauseNanos);
             }
             
-            printMemoryLayout(memory, "Final Memory Layout after Worst Fit");
+            private static int nextAllocatedStart(List<MemoryBlock> blocks, int from, int end)
+            {
+                for (int i = from; i < blocks.size(); i++) 
+                {
+                    if (blocks.get(i).allocated) 
+                    {
+                        return blocks.get(i).startAddress;
+                    }
+                }
+                return end;
+            }
+            
+            private static int nextId(List<MemoryBlock> memory)
+            {
+                int max = 0;
+                for (MemoryBlock block : memory) 
+                {
+                    max = Math.max(max, block.id);
+                }
+                return max + 1;
+            }
+            
+            public void printSummary(String title)
+            {
+                System.out.println("\n" + title + " (" + (budgetKB == 0 ? "full" : "incremental, " + budgetKB + " KB per pass") + "):");
+                System.out.printf("Compactions: %d, moved %d KB in %d blocks\n", compactions, totalMovedKB, totalMovedBlocks);
+                System.out.printf("Pause time: total %.1f us, max %.1f us\n", totalPauseNanos / 1e3, maxPauseNanos / 1e3);
+                System.out.printf("Allocations recovered: %d, still failed after compaction: %d, not enough free memory: %d\n",
+                    recovered, unrecovered, insufficient);
+                if (overBudget > 0) 
+                {
+                    System.out.printf("Budget too small: %d pass(es) had to move a single block larger than %d KB\n",
+                        overBudget, budgetKB);
+                }
+            }
         }
-        
 
         public static void printMemoryLayout(List<MemoryBlock> memory, String title) 
         {
@@ -316,6 +543,86 @@ public class Memory_Manager
             System.out.printf("Page Fault Rate: %.2f%%\n", (double) pageFaults / pageReferences.length * 100);
         }
         
+        // Fault counts only, without step-by-step output, for sweeps over long reference strings
+        public static int fifoFaults(int[] pageReferences, int frameCount) 
+        {
+            ArrayDeque<Integer> frames = new ArrayDeque<>();
+            Set<Integer> frameSet = new HashSet<>();
+            int pageFaults = 0;
+            for (int page : pageReferences) 
+            {
+                if (frameSet.add(page)) 
+                {
+                    pageFaults++;
+                    if (frames.size() == frameCount) 
+                    {
+                        frameSet.remove(frames.poll());
+                    }
+                    frames.offer(page);
+                }
+            }
+            return pageFaults;
+        }
+        
+        public static int lruFaults(int[] pageReferences, int frameCount) 
+        {
+            LinkedHashMap<Integer, Boolean> lruCache = new LinkedHashMap<>(frameCount, 0.75f, true) 
+            {
+                protected boolean removeEldestEntry(Map.Entry<Integer, Boolean> eldest) 
+                {
+                    return size() > frameCount;
+                }
+            };
+            int pageFaults = 0;
+            for (int page : pageReferences) 
+            {
+                if (lruCache.put(page, Boolean.TRUE) == null) 
+                {
+                    pageFaults++;
+                }
+            }
+            return pageFaults;
+        }
+        
+        // O(n log frames): each reference's next use is precomputed, and resident pages are kept
+        // ordered by next use so the victim is always the last one
+        public static int optimalFaults(int[] pageReferences, int frameCount) 
+        {
+            int n = pageReferences.length;
+            int[] nextUse = new int[n];
+            Map<Integer, Integer> upcoming = new HashMap<>();
+            for (int i = n - 1; i >= 0; i--) 
+            {
+                Integer next = upcoming.put(pageReferences[i], i);
+                nextUse[i] = next != null ? next : Integer.MAX_VALUE;
+            }
+            
+            Map<Integer, Integer> resident = new HashMap<>(); // page -> its next use
+            TreeSet<Long> byNextUse = new TreeSet<>();        // nextUse << 32 | page
+            int pageFaults = 0;
+            for (int i = 0; i < n; i++) 
+            {
+                int page = pageReferences[i];
+                Integer current = resident.get(page);
+                if (current != null) 
+                {
+                    byNextUse.remove((long) current << 32 | (page & 0xFFFFFFFFL));
+                } 
+                else 
+                {
+                    pageFaults++;
+                    if (resident.size() == frameCount) 
+                    {
+                        long victim = byNextUse.pollLast();
+                        resident.remove((int) victim);
+                    }
+                }
+                resident.put(page, nextUse[i]);
+                byNextUse.add((long) nextUse[i] << 32 | (page & 0xFFFFFFFFL));
+            }
+            return pageFaults;
+        }
+        
         // Helper methods to display frame states
         public static String getFrameState(Queue<Integer> frames) 
         {
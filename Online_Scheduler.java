@@ -0,0 +1,258 @@
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Long-running, non-preemptive scheduler that accepts processes while it runs.
+// Submissions must be in non-decreasing arrival order (a stream of arrivals): the latest arrival
+// seen acts as a watermark, and the CPU only commits to a decision at a time before the watermark,
+// when every process that could compete for it is known. A submission arriving before the
+// watermark is rejected, since decisions it should have taken part in may already be made.
+// Each submission costs O(log n) amortized, where n is the number of live (waiting or ready)
+// processes. Completed processes only update running totals, so memory does not grow with the
+// length of the stream.
+public class Online_Scheduler
+{
+    public enum Policy
+    {
+        FCFS, PRIORITY, SJF
+    }
+
+    // The scheduler's own copy of a submitted process; the caller's Process_Create is never modified
+    private static class Job
+    {
+        final int pid;
+        final int arrival;
+        final int burst;
+        final int priority;
+        final long order; // Submission order, the final tie-breaker
+
+        Job(Process_Create p, long order)
+        {
+            this.pid = p.pid;
+            this.arrival = p.arrival_time;
+            this.burst = p.burst_time;
+            this.priority = p.priority;
+            this.order = order;
+        }
+    }
+
+    private static final Comparator<Job> BY_ARRIVAL =
+        Comparator.<Job>comparingInt(j -> j.arrival).thenComparingLong(j -> j.order);
+
+    private final Policy policy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Job> arriving = new PriorityQueue<>(BY_ARRIVAL); // Submitted, not yet arrived at currentTime
+    private final PriorityQueue<Job> ready;                                      // Arrived, ordered by policy
+    private long nextOrder;
+    private long watermark = Long.MIN_VALUE; // No process will be submitted with an earlier arrival
+    private long currentTime;                // When the CPU is next free
+    private long firstArrival = -1;
+
+    // Running totals over completed processes, in constant memory
+    private final Streaming_Stats waitingTimes = new Streaming_Stats();
+    private final Streaming_Stats turnaroundTimes = new Streaming_Stats();
+    private long busyTime;
+
+    public Online_Scheduler(Policy policy)
+    {
+        this.policy = policy;
+        // Same choices as Scheduling_Algorithms: highest priority number, shortest burst, ties by arrival
+        Comparator<Job> order;
+        switch (policy)
+        {
+            case PRIORITY:
+                order = Comparator.<Job>comparingInt(j -> -j.priority).thenComparing(BY_ARRIVAL);
+                break;
+            case SJF:
+                order = Comparator.<Job>comparingInt(j -> j.burst).thenComparing(BY_ARRIVAL);
+                break;
+            default:
+                order = BY_ARRIVAL;
+                break;
+        }
+        this.ready = new PriorityQueue<>(order);
+    }
+
+    public Policy getPolicy()
+    {
+        return policy;
+    }
+
+    // Adds a process to the stream and runs every decision that no longer depends on future arrivals.
+    // Throws IllegalArgumentException if p arrives before an earlier submission or advanceTo() time.
+    public void submit(Process_Create p)
+    {
+        lock.lock();
+        try
+        {
+            if (p.arrival_time < watermark)
+            {
+                throw new IllegalArgumentException("Process " + p.pid + " arrives at " + p.arrival_time
+                    + ", before the stream's watermark " + watermark);
+            }
+            if (firstArrival < 0)
+            {
+                firstArrival = p.arrival_time;
+            }
+            arriving.add(new Job(p, nextOrder++));
+            watermark = Math.max(watermark, p.arrival_time);
+            dispatch(false);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    // Declares that no process will arrive before `time`, letting the CPU run up to it
+    public void advanceTo(long time)
+    {
+        lock.lock();
+        try
+        {
+            watermark = Math.max(watermark, time);
+            dispatch(false);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    // Ends the stream and runs every remaining process to completion
+    public void finish()
+    {
+        lock.lock();
+        try
+        {
+            dispatch(true);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    // Consistent view of the running totals; safe to call from any thread at any time
+    public Snapshot snapshot()
+    {
+        lock.lock();
+        try
+        {
+            return new Snapshot(this);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    // Adds the waiting and turnaround times of every completed process to the given summaries
+    public void mergeStatsInto(Streaming_Stats waiting, Streaming_Stats turnaround)
+    {
+        lock.lock();
+        try
+        {
+            waiting.merge(waitingTimes);
+            turnaround.merge(turnaroundTimes);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    // Forgets every process and total so the instance can schedule a new stream
+    public void reset()
+    {
+        lock.lock();
+        try
+        {
+            arriving.clear();
+            ready.clear();
+            nextOrder = 0;
+            watermark = Long.MIN_VALUE;
+            currentTime = 0;
+            firstArrival = -1;
+            waitingTimes.reset();
+            turnaroundTimes.reset();
+            busyTime = 0;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    // Runs processes while the next decision is final (caller holds lock)
+    private void dispatch(boolean endOfStream)
+    {
+        while (!arriving.isEmpty() || !ready.isEmpty())
+        {
+            long decisionTime = currentTime;
+            if (ready.isEmpty() && arriving.peek().arrival > decisionTime)
+            {
+                decisionTime = arriving.peek().arrival; // CPU idles until the next arrival
+            }
+            // A process arriving exactly at the watermark may still be submitted
+            if (!endOfStream && decisionTime >= watermark)
+            {
+                return;
+            }
+
+            while (!arriving.isEmpty() && arriving.peek().arrival <= decisionTime)
+            {
+                ready.add(arriving.poll());
+            }
+
+            Job next = ready.poll();
+            long completion = decisionTime + next.burst;
+            long turnaround = completion - next.arrival;
+            long waiting = turnaround - next.burst;
+
+            waitingTimes.add(waiting);
+            turnaroundTimes.add(turnaround);
+            busyTime += next.burst;
+            currentTime = completion;
+        }
+    }
+
+    public static class Snapshot
+    {
+        final Policy policy;
+        final long completed;
+        final int live;           // Submitted but not yet completed
+        final long currentTime;   // Time at which the last decided process completes
+        final double averageWaitingTime;
+        final double averageTurnaroundTime;
+        final long[] waitingPercentiles;    // p50, p90, p99, max
+        final long[] turnaroundPercentiles; // p50, p90, p99, max
+        final double cpuUtilization; // Percent of the time since the first arrival spent running processes
+
+        private Snapshot(Online_Scheduler s)
+        {
+            this.policy = s.policy;
+            this.completed = s.waitingTimes.getCount();
+            this.live = s.arriving.size() + s.ready.size();
+            this.currentTime = s.currentTime;
+            this.averageWaitingTime = s.waitingTimes.getMean();
+            this.averageTurnaroundTime = s.turnaroundTimes.getMean();
+            this.waitingPercentiles = percentiles(s.waitingTimes);
+            this.turnaroundPercentiles = percentiles(s.turnaroundTimes);
+            long span = s.currentTime - s.firstArrival;
+            this.cpuUtilization = completed == 0 || span <= 0 ? 0 : 100.0 * s.busyTime / span;
+        }
+
+        private static long[] percentiles(Streaming_Stats stats)
+        {
+            return new long[] { stats.getQuantile(0.50), stats.getQuantile(0.90), stats.getQuantile(0.99), stats.getMax() };
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%-8s t=%-8d completed=%-8d live=%-6d avg WT=%.2f avg TAT=%.2f WT p50/p90/p99/max=%d/%d/%d/%d CPU=%.2f%%",
+                policy, currentTime, completed, live, averageWaitingTime, averageTurnaroundTime,
+                waitingPercentiles[0], waitingPercentiles[1], waitingPercentiles[2], waitingPercentiles[3], cpuUtilization);
+        }
+    }
+}
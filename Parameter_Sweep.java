@@ -0,0 +1,429 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Runs every CPU policy, allocator and page-replacement policy over a grid of inputs and
+// parameters, writing one CSV row per grid cell as soon as the cell finishes.
+// Usage: java Parameter_Sweep [--workloads a.txt,b.txt] [--generate 10000,100000] [--traces t.txt,...]
+//                             [--frames 3,4,5] [--memory 600,1000] [--out sweep.csv] [--threads N]
+// Workload files use the processes.txt format; trace files hold whitespace-separated page numbers.
+// Cells are split recursively across a fork/join pool (one thread per core by default). Inputs are
+// parsed once and shared read-only: every simulator copies what it needs to change. Rerunning with
+// the same --out skips the cells already in the file, so an interrupted sweep resumes where it stopped.
+public class Parameter_Sweep
+{
+    private static final String HEADER =
+        "kind,input,policy,fit,frames,memory_kb,completed,avg_wt,avg_tat,cpu_util,throughput,page_faults,fault_rate,allocated,failed,p99_wt,p99_tat";
+    private static final int[] DEFAULT_TRACE = {7, 0, 1, 2, 0, 3, 0, 4, 2, 3, 0, 3, 2};
+
+    // One grid cell; unused parameters are empty strings
+    private static class Cell
+    {
+        final String kind;
+        final String input;
+        final String policy;
+        final String fit;
+        final String frames;
+        final String memory;
+
+        Cell(String kind, String input, String policy, String fit, String frames, String memory)
+        {
+            this.kind = kind;
+            this.input = input;
+            this.policy = policy;
+            this.fit = fit;
+            this.frames = frames;
+            this.memory = memory;
+        }
+
+        // Only the input path can hold a comma or quote, so it is the only field that may need quoting
+        String key()
+        {
+            return String.join(",", kind, csvField(input), policy, fit, frames, memory);
+        }
+    }
+
+    private final Map<String, List<Process_Create>> workloads = new LinkedHashMap<>(); // Read only once built
+    private final Map<String, int[]> traces = new LinkedHashMap<>();                   // Read only once built
+    private final ReentrantLock outputLock = new ReentrantLock();
+    private Writer output;
+
+    public static void main(String[] args) throws IOException
+    {
+        List<String> workloadFiles = new ArrayList<>();
+        List<String> traceFiles = new ArrayList<>();
+        int[] generated = {};
+        int[] frames = {3, 4, 5};
+        int[] memorySizes = {600, 1000};
+        String out = "sweep.csv";
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i += 2)
+        {
+            if (i + 1 == args.length)
+            {
+                throw new IllegalArgumentException("Missing value for option: " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i])
+            {
+                case "--workloads": workloadFiles.addAll(Arrays.asList(value.split(","))); break;
+                case "--generate":  generated = parseList(value); break;
+                case "--traces":    traceFiles.addAll(Arrays.asList(value.split(","))); break;
+                case "--frames":    frames = parseList(value); break;
+                case "--memory":    memorySizes = parseList(value); break;
+                case "--out":       out = value; break;
+                case "--threads":   threads = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (workloadFiles.isEmpty() && generated.length == 0)
+        {
+            workloadFiles.add("processes.txt");
+        }
+
+        Parameter_Sweep sweep = new Parameter_Sweep();
+        for (String file : workloadFiles)
+        {
+            List<Process_Create> processes = CPU_Scheduler.readProcessesFromFile(file);
+            if (processes.isEmpty())
+            {
+                System.err.println("Skipping workload with no processes: " + file);
+            }
+            else
+            {
+                sweep.workloads.put(file, Collections.unmodifiableList(processes));
+            }
+        }
+        for (int count : generated)
+        {
+            sweep.workloads.put("generated-" + count, Collections.unmodifiableList(CPU_Scheduler.generateWorkload(count, 42)));
+        }
+        if (traceFiles.isEmpty())
+        {
+            sweep.traces.put("default", DEFAULT_TRACE);
+        }
+        for (String file : traceFiles)
+        {
+            sweep.traces.put(file, readTrace(file));
+        }
+
+        sweep.run(sweep.buildGrid(frames, memorySizes), Paths.get(out), threads);
+    }
+
+    private List<Cell> buildGrid(int[] frameCounts, int[] memorySizes)
+    {
+        List<Cell> cells = new ArrayList<>();
+        for (String workload : workloads.keySet())
+        {
+            for (Online_Scheduler.Policy policy : Online_Scheduler.Policy.values())
+            {
+                cells.add(new Cell("cpu", workload, policy.name(), "", "", ""));
+            }
+            for (Memory_Manager.MemoryAllocation.Fit fit : Memory_Manager.MemoryAllocation.Fit.values())
+            {
+                cells.add(new Cell("alloc", workload, "", fit.name(), "", ""));
+            }
+            for (Online_Scheduler.Policy policy : Online_Scheduler.Policy.values())
+            {
+                for (Memory_Manager.MemoryAllocation.Fit fit : Memory_Manager.MemoryAllocation.Fit.values())
+                {
+                    for (int memory : memorySizes)
+                    {
+                        cells.add(new Cell("integrated", workload, policy.name(), fit.name(), "", String.valueOf(memory)));
+                    }
+                }
+            }
+        }
+        for (String trace : traces.keySet())
+        {
+            for (String policy : new String[] {"FIFO", "LRU", "OPTIMAL"})
+            {
+                for (int frames : frameCounts)
+                {
+                    cells.add(new Cell("paging", trace, policy, "", String.valueOf(frames), ""));
+                }
+            }
+        }
+        return cells;
+    }
+
+    private void run(List<Cell> grid, Path out, int threads) throws IOException
+    {
+        Set<String> done = readCompletedKeys(out);
+        List<Cell> pending = new ArrayList<>();
+        for (Cell cell : grid)
+        {
+            if (!done.contains(cell.key()))
+            {
+                pending.add(cell);
+            }
+        }
+        System.out.printf("%d cells, %d already in %s, running %d on %d threads%n",
+            grid.size(), grid.size() - pending.size(), out, pending.size(), threads);
+
+        long start = System.nanoTime();
+        try (Writer writer = Files.newBufferedWriter(out, StandardOpenOption.CREATE, StandardOpenOption.APPEND))
+        {
+            output = writer;
+            if (done.isEmpty() && Files.size(out) == 0)
+            {
+                writeLine(HEADER);
+            }
+            if (!pending.isEmpty())
+            {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try
+                {
+                    pool.invoke(new SweepTask(pending, 0, pending.size()));
+                }
+                finally
+                {
+                    pool.shutdown();
+                }
+            }
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+        System.out.printf("Finished in %.2f s, results in %s%n", (System.nanoTime() - start) / 1e9, out);
+    }
+
+    // Splits the cell range in half until a single cell is left. Tasks are never serialized.
+    @SuppressWarnings("serial")
+    private class SweepTask extends RecursiveAction
+    {
+        private final List<Cell> cells;
+        private final int from;
+        private final int to;
+
+        SweepTask(List<Cell> cells, int from, int to)
+        {
+            this.cells = cells;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from == 1)
+            {
+                Cell cell = cells.get(from);
+                writeLine(cell.key() + "," + evaluate(cell));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SweepTask(cells, from, mid), new SweepTask(cells, mid, to));
+        }
+    }
+
+    // Metric columns for one cell: completed .. p99_tat
+    private String evaluate(Cell cell)
+    {
+        switch (cell.kind)
+        {
+            case "cpu":
+            {
+                List<Process_Create> stream = new ArrayList<>(workloads.get(cell.input));
+                stream.sort(Comparator.comparingInt(p -> p.arrival_time));
+                Online_Scheduler scheduler = new Online_Scheduler(Online_Scheduler.Policy.valueOf(cell.policy));
+                for (Process_Create p : stream)
+                {
+                    scheduler.submit(p);
+                }
+                scheduler.finish();
+                Online_Scheduler.Snapshot s = scheduler.snapshot();
+                return columns(s.completed, s.averageWaitingTime, s.averageTurnaroundTime, s.cpuUtilization, "", "", "", "", "",
+                    s.waitingPercentiles[2], s.turnaroundPercentiles[2]);
+            }
+            case "alloc":
+            {
+                List<Memory_Manager.MemoryAllocation.ProcessMemory> requests = new ArrayList<>();
+                for (Process_Create p : workloads.get(cell.input))
+                {
+                    if (p.memory_size > 0)
+                    {
+                        requests.add(new Memory_Manager.MemoryAllocation.ProcessMemory("P" + p.pid, p.memory_size));
+                    }
+                }
+                int placed = Memory_Manager.MemoryAllocation.allocateAll(
+                    CPU_Scheduler.createMemoryBlocks(), requests, Memory_Manager.MemoryAllocation.Fit.valueOf(cell.fit));
+                return columns("", "", "", "", "", "", "", placed, requests.size() - placed, "", "");
+            }
+            case "integrated":
+            {
+                Integrated_Scheduler.Result r = new Integrated_Scheduler(Online_Scheduler.Policy.valueOf(cell.policy),
+                    Memory_Manager.MemoryAllocation.Fit.valueOf(cell.fit), Integer.parseInt(cell.memory)).run(workloads.get(cell.input));
+                return columns(r.completed, r.averageWaitingTime(), r.averageTurnaroundTime(), r.cpuUtilization(),
+                    r.throughput(), "", "", r.completed, r.rejected,
+                    r.waitingTimes.getQuantile(0.99), r.turnaroundTimes.getQuantile(0.99));
+            }
+            default: // paging
+            {
+                int[] references = traces.get(cell.input);
+                int frames = Integer.parseInt(cell.frames);
+                int faults;
+                if (cell.policy.equals("FIFO"))
+                {
+                    faults = Memory_Manager.PageReplacement.fifoFaults(references, frames);
+                }
+                else if (cell.policy.equals("LRU"))
+                {
+                    faults = Memory_Manager.PageReplacement.lruFaults(references, frames);
+                }
+                else
+                {
+                    faults = Memory_Manager.PageReplacement.optimalFaults(references, frames);
+                }
+                double rate = references.length == 0 ? 0 : 100.0 * faults / references.length;
+                return columns("", "", "", "", "", faults, rate, "", "", "", "");
+            }
+        }
+    }
+
+    private static String columns(Object... values)
+    {
+        StringBuilder row = new StringBuilder();
+        for (int i = 0; i < values.length; i++)
+        {
+            if (i > 0)
+            {
+                row.append(',');
+            }
+            row.append(values[i] instanceof Double ? String.format(Locale.ROOT, "%.4f", (Double) values[i]) : values[i]);
+        }
+        return row.toString();
+    }
+
+    // Quotes a value containing a comma or double quote, RFC 4180 style. Rows are split on line
+    // breaks when a sweep resumes, so those are rejected instead.
+    private static String csvField(String value)
+    {
+        if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0)
+        {
+            throw new IllegalArgumentException("Input name cannot contain a line break: " + value);
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0)
+        {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // Splits one CSV row into unquoted fields
+    private static List<String> splitCsv(String line)
+    {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+            if (quoted)
+            {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"')
+                {
+                    field.append('"');
+                    i++;
+                }
+                else if (c == '"')
+                {
+                    quoted = false;
+                }
+                else
+                {
+                    field.append(c);
+                }
+            }
+            else if (c == '"')
+            {
+                quoted = true;
+            }
+            else if (c == ',')
+            {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else
+            {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Appends a row and flushes it, so a crash loses at most the cells still running
+    private void writeLine(String line)
+    {
+        outputLock.lock();
+        try
+        {
+            output.write(line);
+            output.write(System.lineSeparator());
+            output.flush();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        finally
+        {
+            outputLock.unlock();
+        }
+    }
+
+    // Keys of the rows already written. A trailing partial row from an interrupted run is cut off.
+    private static Set<String> readCompletedKeys(Path out) throws IOException
+    {
+        Set<String> keys = new HashSet<>();
+        if (!Files.exists(out))
+        {
+            return keys;
+        }
+        String content = new String(Files.readAllBytes(out));
+        if (!content.isEmpty() && !content.startsWith(HEADER + System.lineSeparator()))
+        {
+            throw new IllegalStateException(out + " has different columns; write this sweep to a new --out file");
+        }
+        int end = content.lastIndexOf('\n') + 1;
+        if (end < content.length())
+        {
+            try (FileChannel channel = FileChannel.open(out, StandardOpenOption.WRITE))
+            {
+                channel.truncate(end);
+            }
+        }
+        int columns = HEADER.split(",").length;
+        for (String line : content.substring(0, end).split("\\R"))
+        {
+            List<String> fields = splitCsv(line);
+            if (fields.size() == columns && !line.equals(HEADER))
+            {
+                keys.add(new Cell(fields.get(0), fields.get(1), fields.get(2), fields.get(3), fields.get(4), fields.get(5)).key());
+            }
+        }
+        return keys;
+    }
+
+    private static int[] readTrace(String file) throws IOException
+    {
+        String content = new String(Files.readAllBytes(Paths.get(file))).trim();
+        if (content.isEmpty())
+        {
+            return new int[0];
+        }
+        return Arrays.stream(content.split("[\\s,]+")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    private static int[] parseList(String value)
+    {
+        return Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+}
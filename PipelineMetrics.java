@@ -0,0 +1,186 @@
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+// Throughput, wait-time and occupancy instrumentation for a SharedBuffer.
+// To stay cheap on the hot path, put/take totals come from counters the buffer already keeps
+// (bound with bindCounters), and only one buffer position in `sampleRate` reads the clock and
+// records wait time, residence time and occupancy. Operations that actually block are counted
+// in striped LongAdders; the clock is read on that path anyway. Elapsed time comes from the same
+// nanosecond clock the buffer stamps items with, System.nanoTime unless a simulated clock is given.
+public class PipelineMetrics {
+    private static final int DEFAULT_SAMPLE_RATE = 64;
+    private static final int PRECISION_BITS = 5; // About 3% relative error on wait and residence times
+    private static final int STRIPES = Runtime.getRuntime().availableProcessors();
+
+    private final LongAdder blockedPuts = new LongAdder();
+    private final LongAdder blockedTakes = new LongAdder();
+    private final LatencyHistogram putWait = new LatencyHistogram(PRECISION_BITS, STRIPES);   // ns blocked before an item went in
+    private final LatencyHistogram takeWait = new LatencyHistogram(PRECISION_BITS, STRIPES);  // ns blocked before an item came out
+    private final LatencyHistogram residence = new LatencyHistogram(PRECISION_BITS, STRIPES); // ns an item spent in the buffer
+    private final LatencyHistogram occupancy = new LatencyHistogram(PRECISION_BITS, STRIPES); // Sampled item count
+    private final int sampleShift; // Sample one position in 2^sampleShift
+    private final LongSupplier clock;
+    private final long startNanos;
+    private volatile LongSupplier puts = () -> 0;
+    private volatile LongSupplier takes = () -> 0;
+    private final ReentrantLock reporterLock = new ReentrantLock();
+    private ScheduledExecutorService reporter;
+
+    public PipelineMetrics() {
+        this(DEFAULT_SAMPLE_RATE);
+    }
+
+    // Samples one buffer position in `sampleRate`, rounded up to a power of two; 1 samples everything
+    public PipelineMetrics(int sampleRate) {
+        this(sampleRate, System::nanoTime);
+    }
+
+    // For buffers that time operations with a SimulationClock, pass the same clock's nanoTime
+    public PipelineMetrics(int sampleRate, LongSupplier clock) {
+        this.sampleShift = 32 - Integer.numberOfLeadingZeros(Math.max(1, sampleRate) - 1);
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+    }
+
+    // Called by the buffer in setMetrics() with its running put and take totals
+    public void bindCounters(LongSupplier puts, LongSupplier takes) {
+        this.puts = puts;
+        this.takes = takes;
+    }
+
+    // Whether the operation at buffer position `sequence` (0-based count of puts or takes) is sampled
+    public boolean isSampled(long sequence) {
+        return (sequence & ((1L << sampleShift) - 1)) == 0;
+    }
+
+    // Whether any of the `count` consecutive positions starting at `first` is sampled
+    public boolean isSampled(long first, int count) {
+        return count > 0 && ((first - 1) >> sampleShift) != ((first + count - 1) >> sampleShift);
+    }
+
+    // Called when a put finds the buffer full and has to wait
+    public void recordBlockedPut() {
+        blockedPuts.increment();
+    }
+
+    // Called when a take finds the buffer empty and has to wait
+    public void recordBlockedTake() {
+        blockedTakes.increment();
+    }
+
+    // Called for sampled puts only, with the buffer size right after the put
+    public void recordPutWait(long waitNanos, int size) {
+        putWait.record(waitNanos);
+        occupancy.record(size);
+    }
+
+    // Called for sampled takes only, with the buffer size right after the take
+    public void recordTakeWait(long waitNanos, int size) {
+        takeWait.record(waitNanos);
+        occupancy.record(size);
+    }
+
+    // Called for sampled items when they leave the buffer
+    public void recordResidence(long nanos) {
+        residence.record(nanos);
+    }
+
+    // Point-in-time view of every counter and histogram
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    // Prints a snapshot to `out` every `periodMillis` from a background daemon thread
+    public void startReporter(long periodMillis, PrintStream out) {
+        startReporter(periodMillis, out::println);
+    }
+
+    // Hands each snapshot's text to `sink`, e.g. EventLog::print to keep it in order with the log
+    public void startReporter(long periodMillis, Consumer<String> sink) {
+        reporterLock.lock();
+        try {
+            stopReporter();
+            reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-reporter");
+                t.setDaemon(true);
+                return t;
+            });
+            reporter.scheduleAtFixedRate(() -> sink.accept(snapshot().toString()), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            reporterLock.unlock();
+        }
+    }
+
+    // Also waits for a report already in progress, so none is delivered after this returns
+    public void stopReporter() {
+        reporterLock.lock();
+        try {
+            if (reporter != null) {
+                reporter.shutdownNow();
+                reporter.awaitTermination(1, TimeUnit.SECONDS);
+                reporter = null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            reporterLock.unlock();
+        }
+    }
+
+    // Immutable copy of the metrics; times are in microseconds
+    public static class Snapshot {
+        final double elapsedSeconds;
+        final long puts;
+        final long takes;
+        final long blockedPuts;
+        final long blockedTakes;
+        final double takesPerSecond;
+        final double[] putWait;   // p50, p99, p999, max
+        final double[] takeWait;
+        final double[] residence;
+        final double meanOccupancy;
+        final long maxOccupancy;
+
+        private Snapshot(PipelineMetrics m) {
+            this.elapsedSeconds = (m.clock.getAsLong() - m.startNanos) / 1e9;
+            this.puts = m.puts.getAsLong();
+            this.takes = m.takes.getAsLong();
+            this.blockedPuts = m.blockedPuts.sum();
+            this.blockedTakes = m.blockedTakes.sum();
+            this.takesPerSecond = elapsedSeconds > 0 ? takes / elapsedSeconds : 0;
+            this.putWait = micros(m.putWait);
+            this.takeWait = micros(m.takeWait);
+            this.residence = micros(m.residence);
+            this.meanOccupancy = m.occupancy.getMean();
+            this.maxOccupancy = m.occupancy.getMax();
+        }
+
+        private static double[] micros(LatencyHistogram h) {
+            return new double[] {
+                h.getValueAtQuantile(0.50) / 1e3,
+                h.getValueAtQuantile(0.99) / 1e3,
+                h.getValueAtQuantile(0.999) / 1e3,
+                h.getMax() / 1e3
+            };
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "[Metrics %.1fs] puts=%d takes=%d (%.1f items/s) blocked puts=%d takes=%d occupancy mean=%.2f max=%d%n" +
+                "  put wait   us: p50=%.1f p99=%.1f p999=%.1f max=%.1f%n" +
+                "  take wait  us: p50=%.1f p99=%.1f p999=%.1f max=%.1f%n" +
+                "  residence  us: p50=%.1f p99=%.1f p999=%.1f max=%.1f",
+                elapsedSeconds, puts, takes, takesPerSecond, blockedPuts, blockedTakes, meanOccupancy, maxOccupancy,
+                putWait[0], putWait[1], putWait[2], putWait[3],
+                takeWait[0], takeWait[1], takeWait[2], takeWait[3],
+                residence[0], residence[1], residence[2], residence[3]);
+        }
+    }
+}
@@ -1,41 +1,109 @@
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.*;
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 // Main class demonstrating thread-based process simulation and Producer-Consumer synchronization
 public class ProcessSimulation {
     public static void main(String[] args) {
+        // Optional: --batch N moves N items per buffer call in the producer-consumer simulation
+        //           --virtual runs every process, producer and consumer on its own virtual thread
+        //           --processes N simulates N generated processes instead of reading processes.txt
+        //           --time-scale X runs simulated time X times faster than wall time
+        //           --discrete skips all waiting by jumping simulated time from event to event; it needs
+        //                      BoundedBuffer, since LockFreeRingBuffer blocks outside the clock
+        //           --metrics reports buffer throughput, wait times and occupancy every 2 seconds;
+        //                     times and rates are simulated when --time-scale or --discrete is used
+        //           --log-timestamps prefixes every thread's log line with the time it was recorded
+        int batchSize = 1;
+        boolean virtual = false;
+        int generatedProcesses = 0;
+        SimulationClock clock = SimulationClock.REAL_TIME;
+        boolean reportMetrics = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--batch") && i + 1 < args.length) {
+                batchSize = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--virtual")) {
+                virtual = true;
+            } else if (args[i].equals("--processes") && i + 1 < args.length) {
+                generatedProcesses = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--time-scale") && i + 1 < args.length) {
+                clock = new ScaledClock(Double.parseDouble(args[++i]));
+            } else if (args[i].equals("--discrete")) {
+                clock = new DiscreteEventClock();
+            } else if (args[i].equals("--metrics")) {
+                reportMetrics = true;
+            } else if (args[i].equals("--log-timestamps")) {
+                EventLog.setTimestamps(true);
+            }
+        }
+        
         System.out.println("=== Operating Systems Project 2: Thread-Based Process Simulation ===");
         System.out.println("=== Producer-Consumer Problem Implementation ===\n");
         
         // Read processes from file and create threads
-        List<ProcessThread> processes = readProcessesFromFile("processes.txt");
-        
-        System.out.println("=== Simulating Processes as Threads ===");
-        for (ProcessThread process : processes) {
-            process.start();
-        }
+        List<ProcessThread> processes = generatedProcesses > 0
+            ? generateProcesses(generatedProcesses, clock)
+            : readProcessesFromFile("processes.txt", clock);
         
-        // Wait for all process threads to complete
-        for (ProcessThread process : processes) {
-            try {
-                process.join();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+        if (virtual) {
+            System.out.println("=== Simulating Processes as Virtual Threads ===");
+            // close() waits for every submitted task to finish
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (ProcessThread process : processes) {
+                    executor.submit(process);
+                }
+            }
+        } else {
+            System.out.println("=== Simulating Processes as Threads ===");
+            List<Thread> threads = new ArrayList<>(processes.size());
+            for (ProcessThread process : processes) {
+                Thread thread = new Thread(process);
+                threads.add(thread);
+                thread.start();
+            }
+            
+            // Wait for all process threads to complete
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
             }
         }
         
+        EventLog.flush(); // Thread log lines are printed asynchronously; finish them before printing directly
         System.out.println("\n=== Starting Producer-Consumer Simulation ===");
-        runProducerConsumerSimulation();
+        // Low item rate, so sample every operation; timed by the simulation clock like the buffer
+        PipelineMetrics metrics = reportMetrics ? new PipelineMetrics(1, clock::nanoTime) : null;
+        if (metrics != null) {
+            metrics.startReporter(2000, EventLog::print); // Through the log so reports stay between whole lines
+        }
+        if (virtual) {
+            runVirtualProducerConsumerSimulation(batchSize, clock, metrics);
+        } else {
+            runProducerConsumerSimulation(batchSize, clock, metrics);
+        }
+        if (metrics != null) {
+            metrics.stopReporter();
+        }
+        EventLog.flush();
+        if (metrics != null) {
+            System.out.println("\n" + metrics.snapshot());
+        }
+        
+        if (clock != SimulationClock.REAL_TIME) {
+            System.out.println("\nSimulated time elapsed: " + clock.now() + " ms");
+        }
         
         System.out.println("\n=== Simulation Complete ===");
     }
     
     // Reads process data from file (PID, Arrival_Time, Burst_Time, Priority format)
-    private static List<ProcessThread> readProcessesFromFile(String filename) {
+    private static List<ProcessThread> readProcessesFromFile(String filename, SimulationClock clock) {
         List<ProcessThread> processes = new ArrayList<>();
         
         try (Scanner scanner = new Scanner(new File(filename))) {
@@ -52,7 +120,7 @@ public class ProcessSimulation {
                 if (parts.length >= 3) {
                     int pid = Integer.parseInt(parts[0]);
                     int burstTime = Integer.parseInt(parts[2]); // Burst_Time is 3rd column
-                    processes.add(new ProcessThread(pid, burstTime));
+                    processes.add(new ProcessThread(pid, burstTime, clock));
                 }
             }
             
@@ -62,11 +130,11 @@ public class ProcessSimulation {
             System.out.println("File not found: " + filename + ". Using default processes.");
             
             // Create default processes if file doesn't exist
-            processes.add(new ProcessThread(1, 2));
-            processes.add(new ProcessThread(2, 3));
-            processes.add(new ProcessThread(3, 1));
-            processes.add(new ProcessThread(4, 4));
-            processes.add(new ProcessThread(5, 2));
+            processes.add(new ProcessThread(1, 2, clock));
+            processes.add(new ProcessThread(2, 3, clock));
+            processes.add(new ProcessThread(3, 1, clock));
+            processes.add(new ProcessThread(4, 4, clock));
+            processes.add(new ProcessThread(5, 2, clock));
             
             System.out.println("Loaded " + processes.size() + " default processes");
         }
@@ -74,25 +142,80 @@ public class ProcessSimulation {
         return processes;
     }
     
+    // Creates `count` processes with burst times cycling through 1-5 seconds
+    private static List<ProcessThread> generateProcesses(int count, SimulationClock clock) {
+        List<ProcessThread> processes = new ArrayList<>(count);
+        for (int pid = 1; pid <= count; pid++) {
+            processes.add(new ProcessThread(pid, (pid - 1) % 5 + 1, clock));
+        }
+        System.out.println("Generated " + processes.size() + " processes");
+        return processes;
+    }
+    
+    // Same simulation as runProducerConsumerSimulation, with one virtual thread per producer and consumer
+    private static void runVirtualProducerConsumerSimulation(int batchSize, SimulationClock clock, PipelineMetrics metrics) {
+        BoundedBuffer buffer = new BoundedBuffer(5, true, clock);
+        buffer.setMetrics(metrics);
+        clock.register(); // The main thread takes part while it sleeps through the run
+        
+        Producer[] producers = { new Producer(buffer, 1, batchSize, clock), new Producer(buffer, 2, batchSize, clock) };
+        Consumer[] consumers = {
+            new Consumer(buffer, 1, batchSize, clock), new Consumer(buffer, 2, batchSize, clock),
+            new Consumer(buffer, 3, batchSize, clock)
+        };
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (Producer producer : producers) {
+                tasks.add(executor.submit(producer));
+            }
+            for (Consumer consumer : consumers) {
+                tasks.add(executor.submit(consumer));
+            }
+            
+            try {
+                clock.sleep(10000); // Run simulation for 10 seconds
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            
+            // Signal all tasks to stop; closing the executor waits for them to finish
+            for (Producer producer : producers) {
+                producer.stopRunning();
+            }
+            for (Consumer consumer : consumers) {
+                consumer.stopRunning();
+            }
+            for (Future<?> task : tasks) {
+                task.cancel(true); // Interrupts the virtual thread if it is blocked or sleeping
+            }
+        }
+        clock.deregister(); // Only after the others have stopped, so simulated time cannot run past the end
+    }
+    
     // Runs Producer-Consumer simulation with semaphores and locks for synchronization
-    private static void runProducerConsumerSimulation() {
-        BoundedBuffer buffer = new BoundedBuffer(5);
+    private static void runProducerConsumerSimulation(int batchSize, SimulationClock clock, PipelineMetrics metrics) {
+        BoundedBuffer buffer = new BoundedBuffer(5, true, clock);
+        buffer.setMetrics(metrics);
+        clock.register(); // The main thread takes part while it sleeps through the run
         
         // Create multiple producers and consumers to demonstrate concurrency
-        Producer producer1 = new Producer(buffer, 1);
-        Producer producer2 = new Producer(buffer, 2);
-        Consumer consumer1 = new Consumer(buffer, 1);
-        Consumer consumer2 = new Consumer(buffer, 2);
-        Consumer consumer3 = new Consumer(buffer, 3);
+        Producer producer1 = new Producer(buffer, 1, batchSize, clock);
+        Producer producer2 = new Producer(buffer, 2, batchSize, clock);
+        Consumer consumer1 = new Consumer(buffer, 1, batchSize, clock);
+        Consumer consumer2 = new Consumer(buffer, 2, batchSize, clock);
+        Consumer consumer3 = new Consumer(buffer, 3, batchSize, clock);
+        Thread[] threads = {
+            new Thread(producer1), new Thread(producer2),
+            new Thread(consumer1), new Thread(consumer2), new Thread(consumer3)
+        };
         
-        producer1.start();
-        producer2.start();
-        consumer1.start();
-        consumer2.start();
-        consumer3.start();
+        for (Thread thread : threads) {
+            thread.start();
+        }
         
         try {
-            Thread.sleep(10000); // Run simulation for 10 seconds
+            clock.sleep(10000); // Run simulation for 10 seconds
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
@@ -103,160 +226,153 @@ public class ProcessSimulation {
         consumer1.stopRunning();
         consumer2.stopRunning();
         consumer3.stopRunning();
+        for (Thread thread : threads) {
+            thread.interrupt(); // Wake threads blocked on the buffer or sleeping
+        }
         
         try {
-            producer1.join();
-            producer2.join();
-            consumer1.join();
-            consumer2.join();
-            consumer3.join();
+            for (Thread thread : threads) {
+                thread.join();
+            }
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
+        clock.deregister(); // Only after the others have stopped, so simulated time cannot run past the end
     }
 }
 
-// Represents a process as a thread, simulating CPU burst time
-class ProcessThread extends Thread {
+// Represents a process run on its own (platform or virtual) thread, simulating CPU burst time
+class ProcessThread implements Runnable {
     private int pid;
     private int burstTime;
+    private final SimulationClock clock;
     
     public ProcessThread(int pid, int burstTime) {
+        this(pid, burstTime, SimulationClock.REAL_TIME);
+    }
+    
+    // Registers with the clock immediately so simulated time cannot pass before the process runs
+    public ProcessThread(int pid, int burstTime, SimulationClock clock) {
         this.pid = pid;
         this.burstTime = burstTime;
+        this.clock = clock;
+        clock.register();
     }
     
     @Override
     public void run() {
-        System.out.println("[Process " + pid + "] Started. Burst time: " + burstTime + "s");
+        EventLog.log(LogEvent.PROCESS_STARTED, pid, burstTime);
         try {
-            Thread.sleep(burstTime * 1000); // Simulate CPU burst
+            clock.sleep(burstTime * 1000L); // Simulate CPU burst
         } catch (InterruptedException e) {
-            System.out.println("[Process " + pid + "] Interrupted!");
+            EventLog.log(LogEvent.PROCESS_INTERRUPTED, pid);
         }
-        System.out.println("[Process " + pid + "] Finished.");
+        EventLog.log(LogEvent.PROCESS_FINISHED, pid);
+        clock.deregister();
     }
 }
 
-// Bounded buffer implementing Producer-Consumer synchronization with semaphores and locks
-class BoundedBuffer {
-    private final Queue<Integer> buffer;
-    private final int capacity;
-    private final Lock lock;
-    private final Semaphore empty; // Tracks empty slots in buffer
-    private final Semaphore full;  // Tracks filled slots in buffer
-    
-    public BoundedBuffer(int capacity) {
-        this.capacity = capacity;
-        this.buffer = new LinkedList<>();
-        this.lock = new ReentrantLock();
-        this.empty = new Semaphore(capacity); // All slots initially empty
-        this.full = new Semaphore(0);         // No items initially available
-    }
-    
-    // Producer adds item to buffer with proper synchronization
-    public void put(int item, int producerId) throws InterruptedException {
-        System.out.println("[Producer " + producerId + "] Waiting to put item " + item + "...");
-        
-        empty.acquire(); // Wait if buffer is full
-        lock.lock();     // Get exclusive access to buffer
-        
-        try {
-            buffer.add(item);
-            System.out.println("[Producer " + producerId + "] Put item " + item + " into buffer. Buffer size: " + buffer.size());
-        } finally {
-            lock.unlock();  // Release lock in finally block to ensure it's always released
-            full.release(); // Signal that an item is available
-        }
-    }
+// Producer task that continuously adds items to the buffer
+class Producer implements Runnable {
+    private final SharedBuffer buffer;
+    private final int producerId;
+    private final int batchSize; // Items handed to the buffer per put call
+    private final SimulationClock clock;
+    private volatile boolean running = true; // Volatile ensures visibility across threads
+    private int itemCounter = 1;
     
-    // Consumer removes item from buffer with proper synchronization
-    public int take(int consumerId) throws InterruptedException {
-        System.out.println("[Consumer " + consumerId + "] Waiting to take item...");
-        
-        full.acquire();  // Wait if buffer is empty
-        lock.lock();     // Get exclusive access to buffer
-        
-        int item;
-        try {
-            item = buffer.remove();
-            System.out.println("[Consumer " + consumerId + "] Took item " + item + " from buffer. Buffer size: " + buffer.size());
-        } finally {
-            lock.unlock();   // Release lock in finally block
-            empty.release(); // Signal that a slot is now empty
-        }
-        
-        return item;
+    public Producer(SharedBuffer buffer, int producerId) {
+        this(buffer, producerId, 1);
     }
     
-    public int getSize() {
-        lock.lock();
-        try {
-            return buffer.size();
-        } finally {
-            lock.unlock();
-        }
+    public Producer(SharedBuffer buffer, int producerId, int batchSize) {
+        this(buffer, producerId, batchSize, SimulationClock.REAL_TIME);
     }
-}
-
-// Producer thread that continuously adds items to the buffer
-class Producer extends Thread {
-    private final BoundedBuffer buffer;
-    private final int producerId;
-    private volatile boolean running = true; // Volatile ensures visibility across threads
-    private int itemCounter = 1;
     
-    public Producer(BoundedBuffer buffer, int producerId) {
+    // Registers with the clock immediately so simulated time cannot pass before the thread runs
+    public Producer(SharedBuffer buffer, int producerId, int batchSize, SimulationClock clock) {
         this.buffer = buffer;
         this.producerId = producerId;
+        this.batchSize = Math.max(1, batchSize);
+        this.clock = clock;
+        clock.register();
     }
     
     @Override
     public void run() {
-        System.out.println("[Producer " + producerId + "] Started.");
+        EventLog.log(LogEvent.PRODUCER_STARTED, producerId);
+        int[] batch = new int[batchSize];
         
         while (running) {
             try {
-                int item = itemCounter++;
-                buffer.put(item, producerId);
+                if (batchSize == 1) {
+                    int item = itemCounter++;
+                    buffer.put(item, producerId);
+                } else {
+                    for (int i = 0; i < batchSize; i++) {
+                        batch[i] = itemCounter++;
+                    }
+                    buffer.putAll(batch, producerId);
+                }
                 
-                Thread.sleep((int)(Math.random() * 1000) + 500); // Simulate production time
+                clock.sleep((int)(Math.random() * 1000) + 500); // Simulate production time
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 break;
             }
         }
         
-        System.out.println("[Producer " + producerId + "] Finished.");
+        EventLog.log(LogEvent.PRODUCER_FINISHED, producerId);
+        clock.deregister();
     }
     
+    // The owner must also interrupt the thread running this task, in case it is blocked or sleeping
     public void stopRunning() {
         running = false;
-        this.interrupt();
     }
 }
 
-// Consumer thread that continuously removes and processes items from buffer
-class Consumer extends Thread {
-    private final BoundedBuffer buffer;
+// Consumer task that continuously removes and processes items from buffer
+class Consumer implements Runnable {
+    private final SharedBuffer buffer;
     private final int consumerId;
+    private final int batchSize; // Maximum items taken from the buffer per call
+    private final SimulationClock clock;
     private volatile boolean running = true; // Volatile ensures visibility across threads
     
-    public Consumer(BoundedBuffer buffer, int consumerId) {
+    public Consumer(SharedBuffer buffer, int consumerId) {
+        this(buffer, consumerId, 1);
+    }
+    
+    public Consumer(SharedBuffer buffer, int consumerId, int batchSize) {
+        this(buffer, consumerId, batchSize, SimulationClock.REAL_TIME);
+    }
+    
+    // Registers with the clock immediately so simulated time cannot pass before the thread runs
+    public Consumer(SharedBuffer buffer, int consumerId, int batchSize, SimulationClock clock) {
         this.buffer = buffer;
         this.consumerId = consumerId;
+        this.batchSize = Math.max(1, batchSize);
+        this.clock = clock;
+        clock.register();
     }
     
     @Override
     public void run() {
-        System.out.println("[Consumer " + consumerId + "] Started.");
+        EventLog.log(LogEvent.CONSUMER_STARTED, consumerId);
+        int[] batch = new int[batchSize];
         
         while (running) {
             try {
-                int item = buffer.take(consumerId);
+                if (batchSize == 1) {
+                    int item = buffer.take(consumerId);
+                    EventLog.log(LogEvent.CONSUMER_PROCESSING, consumerId, item);
+                } else {
+                    int count = buffer.takeUpTo(batch, batchSize, consumerId);
+                    EventLog.log(LogEvent.CONSUMER_PROCESSING_BATCH, consumerId, count);
+                }
                 
-                System.out.println("[Consumer " + consumerId + "] Processing item " + item + "...");
-                Thread.sleep((int)(Math.random() * 1500) + 500); // Simulate processing time
+                clock.sleep((int)(Math.random() * 1500) + 500); // Simulate processing time
                 
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -264,11 +380,12 @@ class Consumer extends Thread {
             }
         }
         
-        System.out.println("[Consumer " + consumerId + "] Finished.");
+        EventLog.log(LogEvent.CONSUMER_FINISHED, consumerId);
+        clock.deregister();
     }
     
+    // The owner must also interrupt the thread running this task, in case it is blocked or sleeping
     public void stopRunning() {
         running = false;
-        this.interrupt();
     }
 }
\ No newline at end of file
@@ -6,8 +6,14 @@ public class Process_Create
     int priority;
     int waiting_time;
     int turnaround_time; 
+    int memory_size; // KB, 0 when the workload has no memory column
 
     public Process_Create(int pid, int arrival_time, int burst_time, int priority) 
+    {
+        this(pid, arrival_time, burst_time, priority, 0);
+    }
+
+    public Process_Create(int pid, int arrival_time, int burst_time, int priority, int memory_size) 
     {
         this.pid = pid;
         this.arrival_time = arrival_time;
@@ -15,6 +21,7 @@ public class Process_Create
         this.priority = priority;
         this.waiting_time = 0;
         this.turnaround_time = 0;
+        this.memory_size = memory_size;
     }
     // calculate turnaround and waiting times based on completion time
     public void Calculate_Times(int CompletionTime)
@@ -0,0 +1,43 @@
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Real sleeps with simulated time running `scale` times faster than wall time
+class ScaledClock implements SimulationClock {
+    private final double scale;
+    private final long origin = System.nanoTime();
+
+    public ScaledClock(double scale) {
+        if (!(scale > 0)) {
+            throw new IllegalArgumentException("Time scale must be positive: " + scale);
+        }
+        this.scale = scale;
+    }
+
+    @Override
+    public long now() {
+        return (long) ((System.nanoTime() - origin) * scale / 1_000_000);
+    }
+
+    @Override
+    public long nanoTime() {
+        return (long) ((System.nanoTime() - origin) * scale);
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        long nanos = (long) (millis * 1_000_000 / scale);
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    @Override
+    public void acquire(Semaphore semaphore, int permits) throws InterruptedException {
+        semaphore.acquire(permits);
+    }
+
+    @Override
+    public void release(Semaphore semaphore, int permits) {
+        semaphore.release(permits);
+    }
+}
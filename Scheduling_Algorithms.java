@@ -2,6 +2,7 @@ import java.util.*;
 
 public class Scheduling_Algorithms 
 {
+    // One dispatch of a schedule; every algorithm returns its chart in execution order
     class GanttEntry 
     {
         int pid;
@@ -16,7 +17,7 @@ public class Scheduling_Algorithms
         }
     }
     
-    public void FCFS(List<Process_Create> processes)
+    public List<GanttEntry> FCFS(List<Process_Create> processes)
     {
         System.out.println("\n=== First Come First Served (FCFS) ===");
         // Sort the processes based on the arrival time
@@ -40,11 +41,12 @@ public class Scheduling_Algorithms
         }
         printGanttChart(ganttChart);
         Print_Results("First Come First Served Algorithm", processes, ganttChart);
+        return ganttChart;
     }
 
     // This is non-preemptive priority scheduling
 
-    public void Priority_Scheduling(List<Process_Create> processes)
+    public List<GanttEntry> Priority_Scheduling(List<Process_Create> processes)
     {
         System.out.println("\n=== Priority Scheduling ===");
         // Sort processes based on arrival time first
@@ -94,9 +96,10 @@ public class Scheduling_Algorithms
         }
         printGanttChart(ganttChart);
         Print_Results("Priority Scheduling", completed, ganttChart);
+        return ganttChart;
     }
     
-    public void SJF(List<Process_Create> processes) 
+    public List<GanttEntry> SJF(List<Process_Create> processes) 
     {
         System.out.println("\n=== Shortest Job First ===");
         
@@ -143,6 +146,7 @@ public class Scheduling_Algorithms
 
         printGanttChart(ganttChart);
         Print_Results("Shortest Job First (SJF)", completed, ganttChart);
+        return ganttChart;
     }
 
     private void printGanttChart(List<GanttEntry> ganttChart) {
@@ -181,20 +185,21 @@ public class Scheduling_Algorithms
         System.out.println("\n" + algorithm);
         System.out.printf("%-5s %-15s %-15s %-15s %-10s %-10s%n", 
             "PID", "Arrival_Time", "Burst_Time", "Priority", "WT", "TAT");
-        int totalWT = 0;
-        int totalTAT = 0;
-        int totalBurstTime = 0;
+        // Streaming summaries: long totals cannot overflow on large traces, and give tail percentiles
+        Streaming_Stats waitingTimes = new Streaming_Stats();
+        Streaming_Stats turnaroundTimes = new Streaming_Stats();
+        long totalBurstTime = 0;
         for (Process_Create p : processes) 
         {
             System.out.printf("%-5d %-15d %-15d %-15d %-10d %-10d%n",
                 p.pid, p.arrival_time, p.burst_time, p.priority, p.waiting_time, p.turnaround_time);
-            totalWT += p.waiting_time;
-            totalTAT += p.turnaround_time;
+            waitingTimes.add(p.waiting_time);
+            turnaroundTimes.add(p.turnaround_time);
             totalBurstTime += p.burst_time;
         }
 
-        double avgWT = (double) totalWT / processes.size();
-        double avgTAT = (double) totalTAT / processes.size();
+        double avgWT = waitingTimes.getMean();
+        double avgTAT = turnaroundTimes.getMean();
         
         // Calculate total execution time from Gantt chart
         int totalTime = ganttChart.get(ganttChart.size() - 1).endTime;
@@ -206,6 +211,8 @@ public class Scheduling_Algorithms
         
         System.out.printf("\nAverage Waiting Time: %.2f\n", avgWT);
         System.out.printf("Average Turnaround Time: %.2f\n", avgTAT);
+        System.out.println("Waiting Time:    " + waitingTimes.summary());
+        System.out.println("Turnaround Time: " + turnaroundTimes.summary());
         System.out.printf("CPU Utilization: %.2f%%\n", cpuUtilization);
         System.out.printf("Total Execution Time: %d time units\n", totalTime);
     }
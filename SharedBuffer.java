@@ -0,0 +1,19 @@
+// Blocking bounded buffer shared by producers and consumers
+interface SharedBuffer {
+    // Blocks while the buffer is full
+    void put(int item, int producerId) throws InterruptedException;
+    
+    // Blocks while the buffer is empty
+    int take(int consumerId) throws InterruptedException;
+    
+    // Puts every item, blocking while the buffer is full
+    void putAll(int[] items, int producerId) throws InterruptedException;
+    
+    // Blocks until at least one item is available, then takes up to max items into dst
+    int takeUpTo(int[] dst, int max, int consumerId) throws InterruptedException;
+    
+    // Takes whatever is currently available into dst without blocking
+    int drainTo(int[] dst, int consumerId);
+    
+    int getSize();
+}
@@ -0,0 +1,34 @@
+import java.util.concurrent.Semaphore;
+
+// Source of simulated time for ProcessSimulation. Simulated threads sleep through the clock
+// and block on buffer semaphores through it, so the clock decides how simulated time maps to
+// wall time. All durations are simulated milliseconds.
+interface SimulationClock {
+    // Plain wall-clock time, the original behaviour of the simulation
+    SimulationClock REAL_TIME = new ScaledClock(1.0);
+
+    // Simulated milliseconds elapsed since the clock was created
+    long now();
+
+    // Simulated nanoseconds elapsed since the clock was created, for timing measurements
+    default long nanoTime() {
+        return now() * 1_000_000;
+    }
+
+    // Suspends the calling thread for `millis` simulated milliseconds
+    void sleep(long millis) throws InterruptedException;
+
+    // Blocking semaphore acquire that the clock can account for while the caller waits
+    void acquire(Semaphore semaphore, int permits) throws InterruptedException;
+
+    // Semaphore release that wakes threads waiting in acquire()
+    void release(Semaphore semaphore, int permits);
+
+    // Declares a thread that will take part in the simulation; call before the thread starts
+    default void register() {
+    }
+
+    // Declares that a registered thread has finished
+    default void deregister() {
+    }
+}
@@ -0,0 +1,107 @@
+// Constant-memory summary of a stream of non-negative times (waiting, turnaround, ...):
+// count, sum, min and max in longs, mean and variance by Welford's method, and quantiles from a
+// log-linear LatencyHistogram (exact below 128, within about 1.6% above). Two summaries built
+// on separate threads or runs can be merged; means and variances combine exactly (Chan et al.).
+// Not thread-safe: give each thread its own instance and merge them.
+public class Streaming_Stats
+{
+    private static final int PRECISION_BITS = 7;
+
+    private final LatencyHistogram histogram = new LatencyHistogram(PRECISION_BITS);
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private double mean;
+    private double m2; // Sum of squared deviations from the mean
+
+    public void add(long value)
+    {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        histogram.record(value);
+    }
+
+    // Adds everything summarized by `other`, as if its values had been added here
+    public void merge(Streaming_Stats other)
+    {
+        if (other.count == 0)
+        {
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        histogram.add(other.histogram);
+    }
+
+    public void reset()
+    {
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+        mean = 0;
+        m2 = 0;
+        histogram.reset();
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public long getSum()
+    {
+        return sum;
+    }
+
+    public long getMin()
+    {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax()
+    {
+        return count == 0 ? 0 : max;
+    }
+
+    public double getMean()
+    {
+        return mean;
+    }
+
+    // Population variance
+    public double getVariance()
+    {
+        return count == 0 ? 0 : m2 / count;
+    }
+
+    public double getStdDev()
+    {
+        return Math.sqrt(getVariance());
+    }
+
+    // Value at quantile q (0.0 - 1.0)
+    public long getQuantile(double q)
+    {
+        return histogram.getValueAtQuantile(q);
+    }
+
+    // "mean=.. sd=.. p50=.. p90=.. p99=.. max=.."
+    public String summary()
+    {
+        return String.format("mean=%.2f sd=%.2f p50=%d p90=%d p99=%d max=%d",
+            getMean(), getStdDev(), getQuantile(0.50), getQuantile(0.90), getQuantile(0.99), getMax());
+    }
+}